@@ -0,0 +1,88 @@
+package com.skillshare.benchmarks;
+
+import com.skillshare.model.LearningPlan;
+import com.skillshare.model.LearningStep;
+import com.skillshare.model.PlanStatus;
+import com.skillshare.model.Post;
+import com.skillshare.model.PostType;
+import com.skillshare.model.StepStatus;
+import com.skillshare.model.User;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Detached entities shaped like the ones the endpoints return.
+ */
+final class Fixtures {
+
+    static final String JWT_SECRET = "ZmFrZXNlY3JldGZha2VzZWNyZXRmYWtlc2VjcmV0ZmFrZXNlY3JldGZha2VzZWNyZXQ=";
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5S8dQGZq6c1xRk6bQ9Y7E2.");
+        user.setBio("Learning in public, one step at a time.");
+        user.setProvider("local");
+        user.setCreatedAt(CREATED_AT);
+        user.setUpdatedAt(CREATED_AT);
+        return user;
+    }
+
+    static Post post(long id, User author) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUser(author);
+        post.setType(PostType.SKILL_SHARING);
+        post.setContent("Notes from this week's practice session. ".repeat(8));
+        post.setMediaUrls(List.of("/api/media/" + "a".repeat(64) + ".jpg", "/api/media/" + "b".repeat(64) + ".png"));
+        post.setCommentCount(id % 7);
+        post.setCreatedAt(CREATED_AT.plusMinutes(id));
+        post.setUpdatedAt(CREATED_AT.plusMinutes(id));
+        return post;
+    }
+
+    static LearningPlan learningPlan(long id, User owner, int stepCount) {
+        LearningPlan plan = new LearningPlan();
+        plan.setId(id);
+        plan.setUser(owner);
+        plan.setTitle("Plan " + id);
+        plan.setDescription("A structured path from the basics to a first project.");
+        plan.setStatus(PlanStatus.IN_PROGRESS);
+        plan.setTargetCompletionDate(CREATED_AT.plusMonths(3));
+        plan.setCreatedAt(CREATED_AT);
+        plan.setUpdatedAt(CREATED_AT);
+        for (int i = 0; i < stepCount; i++) {
+            LearningStep step = new LearningStep();
+            step.setId(id * 1000 + i);
+            step.setTitle("Step " + (i + 1));
+            step.setDescription("Read the chapter and complete the exercises.");
+            step.setResourceUrl("https://example.com/resources/" + i);
+            step.setOrderIndex(i);
+            step.setStatus(i < stepCount / 2 ? StepStatus.COMPLETED : StepStatus.NOT_STARTED);
+            step.setLearningPlan(plan);
+            step.setCreatedAt(CREATED_AT);
+            step.setUpdatedAt(CREATED_AT);
+            plan.getSteps().add(step);
+        }
+        return plan;
+    }
+
+    /**
+     * Sets a field that Spring would normally inject from configuration.
+     */
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,87 @@
+package com.skillshare.benchmarks;
+
+import com.skillshare.model.Notification;
+import com.skillshare.model.User;
+import com.skillshare.repository.NotificationRepository;
+import com.skillshare.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message and link formatting in the {@code NotificationService.create*}
+ * methods. The repository is replaced by a stub that hands each saved
+ * notification to the blackhole, so no database time is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class NotificationBenchmark {
+
+    private NotificationService notificationService;
+    private Blackhole sink;
+    private User recipient;
+    private User actor;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        sink = blackhole;
+        NotificationRepository repository = (NotificationRepository) Proxy.newProxyInstance(
+                NotificationRepository.class.getClassLoader(),
+                new Class<?>[]{NotificationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        sink.consume(args[0]);
+                        return args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        notificationService = new NotificationService(repository);
+        recipient = Fixtures.user(1L);
+        actor = Fixtures.user(2L);
+    }
+
+    @Benchmark
+    public void like() {
+        notificationService.createLikeNotification(recipient, actor, 42L);
+    }
+
+    @Benchmark
+    public void comment() {
+        notificationService.createCommentNotification(recipient, actor, 42L);
+    }
+
+    @Benchmark
+    public void follow() {
+        notificationService.createFollowNotification(recipient, actor);
+    }
+
+    @Benchmark
+    public void learningPlanShared() {
+        notificationService.createLearningPlanSharedNotification(recipient, actor, 42L);
+    }
+
+    @Benchmark
+    public Notification baseline() {
+        // Allocation and setters alone, for comparison with the formatted variants
+        Notification notification = new Notification();
+        notification.setUser(recipient);
+        notification.setMessage("Actor liked your post");
+        notification.setLink("/posts/42");
+        return notification;
+    }
+}
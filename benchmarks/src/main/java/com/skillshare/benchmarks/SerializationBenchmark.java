@@ -0,0 +1,64 @@
+package com.skillshare.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.model.LearningPlan;
+import com.skillshare.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Response bodies of the feed and learning plan endpoints, written with an
+ * {@link ObjectMapper} configured the way Spring Boot configures the MVC one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializationBenchmark {
+
+    @Param({"10", "50"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Page<Post> postPage;
+    private LearningPlan plan;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Post> posts = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> Fixtures.post(id, Fixtures.user(id)))
+                .toList();
+        postPage = new PageImpl<>(posts, PageRequest.of(0, size), size * 20L);
+        plan = Fixtures.learningPlan(1L, Fixtures.user(1L), size);
+    }
+
+    @Benchmark
+    public byte[] postPage() throws Exception {
+        return objectMapper.writeValueAsBytes(postPage);
+    }
+
+    @Benchmark
+    public byte[] learningPlanWithSteps() throws Exception {
+        return objectMapper.writeValueAsBytes(plan);
+    }
+}
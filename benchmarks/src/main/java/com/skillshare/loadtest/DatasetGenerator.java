@@ -0,0 +1,317 @@
+package com.skillshare.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Streams a synthetic social graph into an empty database through the
+ * application's Flyway migrations. Follows, likes and comments follow
+ * power-law distributions, and every follow, like and comment also produces
+ * the notification the application would have created.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java@generate -Dexec.args="--users=1000000 --url=jdbc:h2:file:/tmp/skillshare"
+ * </pre>
+ *
+ * Every generated account is {@code user<id>@load.test} with the password
+ * given by {@code --password}.
+ */
+public final class DatasetGenerator {
+
+    static final String[] FIRST_NAMES = {
+            "Ava", "Ben", "Chloe", "Daniel", "Emma", "Felix", "Grace", "Hugo", "Isla", "Jack",
+            "Kai", "Lena", "Mason", "Nora", "Oscar", "Priya", "Quinn", "Ravi", "Sofia", "Theo"
+    };
+    static final String[] LAST_NAMES = {
+            "Anderson", "Brown", "Chen", "Dias", "Evans", "Fernando", "Garcia", "Hughes", "Ito", "Jones",
+            "Kumar", "Lee", "Martin", "Nguyen", "Okafor", "Perera", "Rossi", "Silva", "Taylor", "Walker"
+    };
+    private static final String[] POST_CONTENT = {
+            "Finally got my sourdough starter to double overnight. Here is the feeding schedule that worked.",
+            "Week three of learning watercolour: wet-on-wet washes are still hard to control.",
+            "Sharing my notes on recursion, with three small exercises to practise on.",
+            "Ran my first 10k today. The interval plan from last month really paid off.",
+            "A quick guide to chord inversions on the guitar, with diagrams."
+    };
+    private static final String[] COMMENT_CONTENT = {
+            "This is really helpful, thanks for sharing!",
+            "How long did it take you to get there?",
+            "Great progress, keep going.",
+            "Could you post the resources you used?"
+    };
+
+    private final Connection connection;
+    private final Random random;
+    private final int users;
+    private final double postsPerUser;
+    private final double followsPerUser;
+    private final double likesPerPost;
+    private final double commentsPerPost;
+    private final String passwordHash;
+    private final Batch batch;
+    private final LocalDateTime now = LocalDateTime.now();
+    private final short[] names;
+
+    private final PreparedStatement insertUser;
+    private final PreparedStatement insertFollow;
+    private final PreparedStatement insertPost;
+    private final PreparedStatement insertLike;
+    private final PreparedStatement insertComment;
+    private final PreparedStatement insertNotification;
+
+    private DatasetGenerator(Connection connection, Options options) throws SQLException {
+        this.connection = connection;
+        this.random = new Random(options.getLong("seed", 42));
+        this.users = options.getInt("users", 100_000);
+        this.postsPerUser = options.getDouble("posts-per-user", 5);
+        this.followsPerUser = options.getDouble("follows-per-user", 20);
+        this.likesPerPost = options.getDouble("likes-per-post", 8);
+        this.commentsPerPost = options.getDouble("comments-per-post", 2);
+        this.names = new short[users + 1];
+        this.passwordHash = new BCryptPasswordEncoder().encode(options.get("password", "password"));
+
+        insertUser = connection.prepareStatement(
+                "INSERT INTO users (id, name, email, password, bio, provider, deleted, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, 'local', false, ?, ?)");
+        insertFollow = connection.prepareStatement(
+                "INSERT INTO user_followers (follower_id, following_id) VALUES (?, ?)");
+        insertPost = connection.prepareStatement(
+                "INSERT INTO posts (id, user_id, content, type, comment_count, deleted, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, false, ?, ?)");
+        insertLike = connection.prepareStatement(
+                "INSERT INTO post_likes (post_id, user_id) VALUES (?, ?)");
+        insertComment = connection.prepareStatement(
+                "INSERT INTO comments (post_id, user_id, content, created_at, updated_at) VALUES (?, ?, ?, ?, ?)");
+        insertNotification = connection.prepareStatement(
+                "INSERT INTO notifications (user_id, message, type, link, read, created_at) VALUES (?, ?, ?, ?, ?, ?)");
+
+        // Flushed in this order so foreign keys always point at rows that already exist
+        this.batch = new Batch(connection, options.getInt("batch-size", 1000), List.of(
+                insertUser, insertFollow, insertPost, insertLike, insertComment, insertNotification));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        String url = options.get("url", "jdbc:h2:file:" + Path.of("target", "loadtest", "skillshare").toAbsolutePath());
+        String username = options.get("username", "sa");
+        String password = options.get("db-password", "");
+
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                resultSet.next();
+                if (resultSet.getLong(1) > 0) {
+                    throw new IllegalStateException("Target database already has users; generate into an empty one");
+                }
+            }
+            new DatasetGenerator(connection, options).run();
+        }
+        System.out.printf("Start the application against it with --spring.datasource.url=%s --spring.datasource.username=%s%n",
+                url, username);
+    }
+
+    private void run() throws SQLException {
+        long started = System.nanoTime();
+        phase("users", this::generateUsers);
+        PowerLaw popularity = new PowerLaw(random, users, 1.0);
+        PowerLaw activity = new PowerLaw(random, users, 0.8);
+        phase("follows", () -> generateFollows(popularity));
+        long posts = phase("posts", () -> generatePosts(activity));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (users + 1));
+            statement.execute("ALTER TABLE posts ALTER COLUMN id RESTART WITH " + (posts + 1));
+        }
+        connection.commit();
+        System.out.printf("Done: %,d rows in %.1fs%n", batch.rows(), (System.nanoTime() - started) / 1e9);
+    }
+
+    private long phase(String name, Phase phase) throws SQLException {
+        long started = System.nanoTime();
+        long rowsBefore = batch.rows();
+        long result = phase.run();
+        batch.flush();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long rows = batch.rows() - rowsBefore;
+        System.out.printf("%-8s %,12d rows in %6.1fs (%,.0f rows/s)%n", name, rows, seconds, rows / seconds);
+        return result;
+    }
+
+    private long generateUsers() throws SQLException {
+        for (long id = 1; id <= users; id++) {
+            Timestamp createdAt = pastTimestamp(730);
+            names[(int) id] = (short) random.nextInt(FIRST_NAMES.length * LAST_NAMES.length);
+            insertUser.setLong(1, id);
+            insertUser.setString(2, name(id));
+            insertUser.setString(3, "user" + id + "@load.test");
+            insertUser.setString(4, passwordHash);
+            insertUser.setString(5, "Synthetic load test account " + id);
+            insertUser.setTimestamp(6, createdAt);
+            insertUser.setTimestamp(7, createdAt);
+            batch.add(insertUser);
+        }
+        return users;
+    }
+
+    private long generateFollows(PowerLaw popularity) throws SQLException {
+        int maxFollows = Math.max(1, users / 10);
+        for (long follower = 1; follower <= users; follower++) {
+            int count = PowerLaw.count(random, followsPerUser, 2.1, maxFollows);
+            Set<Long> following = new HashSet<>();
+            for (int attempt = 0; following.size() < count && attempt < count * 3; attempt++) {
+                long followee = popularity.next() + 1L;
+                if (followee == follower || !following.add(followee)) {
+                    continue;
+                }
+                insertFollow.setLong(1, follower);
+                insertFollow.setLong(2, followee);
+                batch.add(insertFollow);
+                notify(followee, name(follower) + " started following you", "FOLLOW", "/users/" + follower);
+            }
+        }
+        return 0;
+    }
+
+    private long generatePosts(PowerLaw activity) throws SQLException {
+        int maxPerUser = Math.max(1, (int) (postsPerUser * 200));
+        int maxLikes = Math.max(1, users / 2);
+        long postId = 0;
+        for (long author = 1; author <= users; author++) {
+            int posts = PowerLaw.count(random, postsPerUser, 2.0, maxPerUser);
+            for (int i = 0; i < posts; i++) {
+                postId++;
+                int comments = PowerLaw.count(random, commentsPerPost, 2.2, 5_000);
+                Timestamp createdAt = pastTimestamp(365);
+                insertPost.setLong(1, postId);
+                insertPost.setLong(2, author);
+                insertPost.setString(3, POST_CONTENT[random.nextInt(POST_CONTENT.length)]);
+                insertPost.setString(4, random.nextInt(4) == 0 ? "PROGRESS_UPDATE" : "SKILL_SHARING");
+                insertPost.setLong(5, comments);
+                insertPost.setTimestamp(6, createdAt);
+                insertPost.setTimestamp(7, createdAt);
+                batch.add(insertPost);
+
+                int likes = PowerLaw.count(random, likesPerPost, 2.0, maxLikes);
+                Set<Long> likers = new HashSet<>();
+                for (int attempt = 0; likers.size() < likes && attempt < likes * 3; attempt++) {
+                    long liker = activity.next() + 1L;
+                    if (liker == author || !likers.add(liker)) {
+                        continue;
+                    }
+                    insertLike.setLong(1, postId);
+                    insertLike.setLong(2, liker);
+                    batch.add(insertLike);
+                    notify(author, name(liker) + " liked your post", "LIKE", "/posts/" + postId);
+                }
+
+                for (int c = 0; c < comments; c++) {
+                    long commenter = activity.next() + 1L;
+                    Timestamp commentedAt = pastTimestamp(365);
+                    insertComment.setLong(1, postId);
+                    insertComment.setLong(2, commenter);
+                    insertComment.setString(3, COMMENT_CONTENT[random.nextInt(COMMENT_CONTENT.length)]);
+                    insertComment.setTimestamp(4, commentedAt);
+                    insertComment.setTimestamp(5, commentedAt);
+                    batch.add(insertComment);
+                    if (commenter != author) {
+                        notify(author, name(commenter) + " commented on your post", "COMMENT", "/posts/" + postId);
+                    }
+                }
+            }
+        }
+        return postId;
+    }
+
+    private void notify(long recipient, String message, String type, String link) throws SQLException {
+        insertNotification.setLong(1, recipient);
+        insertNotification.setString(2, message);
+        insertNotification.setString(3, type);
+        insertNotification.setString(4, link);
+        // Most notifications have been seen; the unread tail drives the badge count
+        insertNotification.setBoolean(5, random.nextInt(10) < 7);
+        insertNotification.setTimestamp(6, pastTimestamp(365));
+        batch.add(insertNotification);
+    }
+
+    private String name(long userId) {
+        int index = names[(int) userId];
+        return FIRST_NAMES[index / LAST_NAMES.length] + " " + LAST_NAMES[index % LAST_NAMES.length];
+    }
+
+    private Timestamp pastTimestamp(int maxDaysAgo) {
+        return Timestamp.valueOf(now.minusSeconds(random.nextLong(maxDaysAgo * 86_400L)));
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        long run() throws SQLException;
+    }
+
+    /**
+     * JDBC batches for several statements that are executed and committed
+     * together once enough rows are pending.
+     */
+    private static final class Batch {
+
+        private final Connection connection;
+        private final int size;
+        private final List<PreparedStatement> statements;
+        private final List<PreparedStatement> dirty = new ArrayList<>();
+        private int pending;
+        private long rows;
+
+        Batch(Connection connection, int size, List<PreparedStatement> statements) {
+            this.connection = connection;
+            this.size = size;
+            this.statements = statements;
+        }
+
+        void add(PreparedStatement statement) throws SQLException {
+            statement.addBatch();
+            if (!dirty.contains(statement)) {
+                dirty.add(statement);
+            }
+            if (++pending >= size) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            for (PreparedStatement statement : statements) {
+                if (dirty.contains(statement)) {
+                    statement.executeBatch();
+                }
+            }
+            connection.commit();
+            dirty.clear();
+            rows += pending;
+            pending = 0;
+        }
+
+        long rows() {
+            return rows;
+        }
+    }
+}
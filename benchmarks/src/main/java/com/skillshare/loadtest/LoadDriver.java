@@ -0,0 +1,247 @@
+package com.skillshare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a running instance with a mix of feed reads, likes, unread counts and
+ * user searches from accounts created by {@link DatasetGenerator}, and reports
+ * throughput and latency percentiles per endpoint.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java@load \
+ *     -Dexec.args="--base-url=http://localhost:8080 --users=1000000 --clients=64 --duration=PT2M"
+ * </pre>
+ *
+ * By default every client sends its next request as soon as the previous one
+ * returns. With {@code --rate} the clients are paced to a fixed total request
+ * rate, and latencies are corrected for coordinated omission.
+ */
+public final class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int totalWeight;
+    private long maxPostId;
+
+    private LoadDriver(String baseUrl, HttpClient httpClient) {
+        this.baseUrl = baseUrl;
+        this.httpClient = httpClient;
+        endpoints.add(new Endpoint("GET /posts/feed", 50));
+        endpoints.add(new Endpoint("GET /notifications/unread-count", 25));
+        endpoints.add(new Endpoint("POST /posts/{id}/like", 15));
+        endpoints.add(new Endpoint("GET /users/search", 10));
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        int clients = options.getInt("clients", 32);
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        double rate = options.getDouble("rate", 0);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        LoadDriver driver = new LoadDriver(options.get("base-url", "http://localhost:8080"), httpClient);
+
+        List<String> tokens = driver.login(options.getInt("users", 100_000),
+                options.getInt("accounts", clients), options.get("password", "password"));
+        driver.maxPostId = driver.findMaxPostId(tokens.get(0));
+        System.out.printf("Logged in %d accounts, posts 1..%d%n", tokens.size(), driver.maxPostId);
+
+        driver.run(tokens, clients, warmup, duration, rate);
+    }
+
+    private void run(List<String> tokens, int clients, Duration warmup, Duration duration, double rate)
+            throws InterruptedException {
+        long intervalNanos = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                String token = tokens.get(c % tokens.size());
+                executor.submit(() -> {
+                    runClient(token, intervalNanos, measureFrom, end);
+                    return null;
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        report(duration);
+    }
+
+    private void runClient(String token, long intervalNanos, long measureFrom, long end) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Spread the clients' first requests across one interval
+        long next = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        while (next < end) {
+            if (intervalNanos > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            Endpoint endpoint = pick(random);
+            long started = System.nanoTime();
+            boolean ok = send(endpoint, token, random);
+            long finished = System.nanoTime();
+            if (started >= measureFrom) {
+                endpoint.record(finished - started, intervalNanos, ok);
+            }
+            next = intervalNanos > 0 ? next + intervalNanos : finished;
+        }
+    }
+
+    private Endpoint pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            roll -= endpoint.weight();
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(0);
+    }
+
+    private boolean send(Endpoint endpoint, String token, ThreadLocalRandom random) {
+        HttpRequest.Builder request = switch (endpoint.name()) {
+            case "GET /posts/feed" -> get("/posts/feed?page=0&size=20");
+            case "GET /notifications/unread-count" -> get("/notifications/unread-count");
+            case "POST /posts/{id}/like" -> HttpRequest.newBuilder(uri("/posts/" + random.nextLong(1, maxPostId + 1) + "/like"))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+            case "GET /users/search" -> get("/users/search?query=" + URLEncoder.encode(
+                    DatasetGenerator.LAST_NAMES[random.nextInt(DatasetGenerator.LAST_NAMES.length)], StandardCharsets.UTF_8));
+            default -> throw new IllegalStateException(endpoint.name());
+        };
+        try {
+            HttpResponse<Void> response = httpClient.send(request
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<String> login(int users, int accounts, String password) throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < accounts; i++) {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "email", "user" + random.nextInt(1, users + 1) + "@load.test",
+                    "password", password));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+            }
+            tokens.add(objectMapper.readTree(response.body()).path("token").asText());
+        }
+        return tokens;
+    }
+
+    private long findMaxPostId(String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(get("/posts?page=0&size=1&sort=id,desc")
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode content = objectMapper.readTree(response.body()).path("content");
+        if (content.isEmpty()) {
+            throw new IllegalStateException("No posts found; generate a dataset first");
+        }
+        return content.get(0).path("id").asLong();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private void report(Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        Histogram total = new Histogram(3);
+        long totalRequests = 0;
+        long totalErrors = 0;
+        System.out.printf("%n%-32s %10s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Endpoint endpoint : endpoints) {
+            Histogram histogram = endpoint.histogram().copy();
+            total.add(histogram);
+            totalRequests += endpoint.requests().get();
+            totalErrors += endpoint.errors().get();
+            printRow(endpoint.name(), histogram, endpoint.requests().get(), endpoint.errors().get(), seconds);
+        }
+        printRow("total", total, totalRequests, totalErrors, seconds);
+    }
+
+    private static void printRow(String name, Histogram histogram, long requests, long errors, double seconds) {
+        System.out.printf("%-32s %10d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                name,
+                requests,
+                requests / seconds,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6,
+                errors);
+    }
+
+    /**
+     * Latencies are recorded in nanoseconds. When paced, the histogram also
+     * holds the samples that a stalled client would have sent, so request
+     * counts are kept separately.
+     */
+    private record Endpoint(String name, int weight, Histogram histogram, AtomicLong requests, AtomicLong errors) {
+
+        Endpoint(String name, int weight) {
+            this(name, weight, new ConcurrentHistogram(3), new AtomicLong(), new AtomicLong());
+        }
+
+        void record(long latencyNanos, long intervalNanos, boolean ok) {
+            requests.incrementAndGet();
+            if (intervalNanos > 0) {
+                histogram.recordValueWithExpectedInterval(latencyNanos, intervalNanos);
+            } else {
+                histogram.recordValue(latencyNanos);
+            }
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
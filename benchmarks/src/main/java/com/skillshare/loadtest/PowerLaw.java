@@ -0,0 +1,68 @@
+package com.skillshare.loadtest;
+
+import java.util.Random;
+
+/**
+ * Heavy-tailed samplers for the synthetic dataset. A few users attract most
+ * follows and likes, and most users have only a handful.
+ */
+final class PowerLaw {
+
+    private final Random random;
+    private final double[] cdf;
+    private final int[] ranked;
+
+    /**
+     * Zipf distribution over {@code n} items with the given exponent. Items are
+     * shuffled before ranking so popularity is not tied to insertion order.
+     */
+    PowerLaw(Random random, int n, double exponent) {
+        this.random = random;
+        this.cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+        this.ranked = new int[n];
+        for (int i = 0; i < n; i++) {
+            ranked[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ranked[i];
+            ranked[i] = ranked[j];
+            ranked[j] = swap;
+        }
+    }
+
+    /**
+     * Returns an item index in {@code [0, n)}.
+     */
+    int next() {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return ranked[low];
+    }
+
+    /**
+     * Discrete Pareto count with the given mean, capped at {@code max}.
+     */
+    static int count(Random random, double mean, double alpha, int max) {
+        double scale = mean * (alpha - 1) / alpha;
+        double value = scale / Math.pow(1 - random.nextDouble(), 1 / alpha);
+        return (int) Math.min(max, Math.floor(value));
+    }
+}
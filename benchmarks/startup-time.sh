@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Measures time to first request: starts the given command and polls until the
+# application answers any HTTP request, then stops it.
+#
+#   benchmarks/startup-time.sh [-n runs] [-u url] -- java -jar target/app.jar --jwt.secret=...
+#
+# The URL defaults to http://localhost:8080/auth/login, which answers without a token.
+set -euo pipefail
+
+runs=3
+url=http://localhost:8080/auth/login
+while [[ $# -gt 0 && $1 != -- ]]; do
+    case $1 in
+        -n) runs=$2; shift 2 ;;
+        -u) url=$2; shift 2 ;;
+        *) echo "unknown option $1" >&2; exit 2 ;;
+    esac
+done
+shift
+[[ $# -gt 0 ]] || { echo "usage: $0 [-n runs] [-u url] -- command..." >&2; exit 2; }
+
+for ((run = 1; run <= runs; run++)); do
+    start=$(date +%s%N)
+    "$@" >/dev/null 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$url"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "run $run: process exited before answering" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    echo "run $run: $(( ($(date +%s%N) - start) / 1000000 )) ms"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+done
@@ -0,0 +1,55 @@
+package com.skillshare.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes per-region second-level cache statistics at
+ * {@code /actuator/cacheregions}. Needs Hibernate statistics, which are
+ * switched on with {@code app.cache.statistics=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.statistics", havingValue = "true")
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final Statistics statistics;
+
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, RegionStats> regions() {
+        Map<String, RegionStats> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(regionName, region(regionName));
+        }
+        return regions;
+    }
+
+    @ReadOperation
+    public RegionStats region(@Selector String regionName) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+        if (region == null) {
+            return null;
+        }
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+        return new RegionStats(hits, misses, region.getPutCount(), hitRatio);
+    }
+
+    public record RegionStats(long hits, long misses, long puts, double hitRatio) {
+    }
+}
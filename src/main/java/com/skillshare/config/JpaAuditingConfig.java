@@ -0,0 +1,13 @@
+package com.skillshare.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Activates the {@code @CreatedDate} and {@code @LastModifiedDate} fields the
+ * entities declare; feed and notification ordering depends on them.
+ */
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
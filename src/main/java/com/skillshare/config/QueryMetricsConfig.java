@@ -0,0 +1,36 @@
+package com.skillshare.config;
+
+import com.skillshare.monitoring.SqlMetricsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryMetricsConfig {
+
+    /**
+     * Wraps the application DataSource so every statement passes through
+     * {@link SqlMetricsListener}. Only the bean JPA uses is wrapped; the
+     * primary and replica pools behind a routing DataSource are left alone.
+     */
+    @Bean
+    static BeanPostProcessor sqlMetricsDataSourcePostProcessor(ObjectProvider<SqlMetricsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create("dataSource", dataSource)
+                            .listener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
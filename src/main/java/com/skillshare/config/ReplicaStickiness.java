@@ -0,0 +1,51 @@
+package com.skillshare.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who committed a read-write transaction in the last few seconds.
+ * Registered as a transaction listener, so it sees every commit on the
+ * primary, including the implicit transactions of repository save calls.
+ */
+class ReplicaStickiness implements TransactionExecutionListener {
+
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    ReplicaStickiness(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly()) {
+            return;
+        }
+        // Anonymous callers all share one name, so their writes would pin every anonymous read
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            lastWriteNanos.put(authentication.getName(), System.nanoTime());
+        }
+    }
+
+    boolean isSticky(String principal) {
+        Long lastWrite = lastWriteNanos.get(principal);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    void purgeExpired() {
+        long now = System.nanoTime();
+        lastWriteNanos.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
@@ -1,9 +1,12 @@
 package com.skillshare.config;
 
+import com.skillshare.security.IdempotencyFilter;
 import com.skillshare.security.JwtAuthenticationFilter;
+import com.skillshare.security.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -26,6 +29,8 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -41,6 +46,8 @@ public class SecurityConfig {
                     "/error",
                     "/h2-console/**"
                 ).permitAll()
+                .requestMatchers("/media/uploads/**").authenticated()
+                .requestMatchers(HttpMethod.GET, "/media/**").permitAll() // MediaController requires a login for unshared files
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
@@ -48,6 +55,8 @@ public class SecurityConfig {
             )
             .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
+            .addFilterBefore(idempotencyFilter, RateLimitFilter.class) // Replays skip the rate limit
             .headers(headers -> headers.frameOptions().disable()); // For H2 Console
 
         return http.build();
@@ -0,0 +1,51 @@
+package com.skillshare.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class TaskConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor imageTaskExecutor(
+            @Value("${media.variant-workers:2}") int workers,
+            @Value("${media.variant-queue-capacity:500}") int queueCapacity,
+            Environment environment
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Keeps the worker count and queue bound; resizing is CPU-bound, so
+            // more threads would not help, but storage I/O no longer holds a carrier
+            executor.setThreadFactory(Thread.ofVirtual().name("image-variant-", 0).factory());
+        }
+        return executor;
+    }
+
+    /**
+     * Keeps beans with {@code @Scheduled} methods eager under
+     * {@code spring.main.lazy-initialization=true}. Scheduled methods are only
+     * registered when the bean is created, and some of these beans, like the
+     * outbox relay, are never injected anywhere.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>)
+                        method -> AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package com.skillshare.controller;
+
+import com.skillshare.model.RollupGranularity;
+import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.ActivityRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final int MAX_BUCKETS = 1000;
+    private static final int DEFAULT_BUCKETS = 30;
+
+    private final ActivityRollupService activityRollupService;
+    private final UserRepository userRepository;
+
+    /**
+     * Posts, likes received and completed steps per hour, day or week, for
+     * the buckets covering {@code from} to {@code to}, in the server's local
+     * time like every other timestamp in the API. Defaults to the last 30
+     * buckets.
+     */
+    @GetMapping("/me")
+    @QueryBudget(2)
+    public ResponseEntity<?> getMyActivity(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        int toBucket = granularity.bucketOf(to != null ? to : LocalDateTime.now());
+        int fromBucket = from != null ? granularity.bucketOf(from) : toBucket - DEFAULT_BUCKETS + 1;
+        if (fromBucket > toBucket) {
+            return ResponseEntity.badRequest().body("from must not be after to");
+        }
+        if (toBucket - fromBucket + 1 > MAX_BUCKETS) {
+            return ResponseEntity.badRequest().body("Range covers more than " + MAX_BUCKETS + " buckets");
+        }
+        return ResponseEntity.ok(activityRollupService.getActivity(user.getId(), granularity, fromBucket, toBucket));
+    }
+}
@@ -0,0 +1,107 @@
+package com.skillshare.controller;
+
+import com.skillshare.dto.CommentPage;
+import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
+import com.skillshare.repository.CommentRepository;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.CommentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/posts/{postId}/comments")
+@RequiredArgsConstructor
+public class CommentController {
+
+    private final CommentService commentService;
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    @GetMapping
+    @QueryBudget(4)
+    public ResponseEntity<CommentPage> getComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(commentService.getComments(postId, cursor, limit));
+    }
+
+    @PostMapping
+    @QueryBudget(5)
+    public ResponseEntity<?> addComment(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long postId,
+            @RequestBody CommentRequest request
+    ) {
+        if (request.content() == null || request.content().isBlank()) {
+            return ResponseEntity.badRequest().body("Comment content is required");
+        }
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return postRepository.findById(postId)
+                .map(post -> ResponseEntity.ok(commentService.addComment(post, user, request.content())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{commentId}")
+    public ResponseEntity<?> editComment(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long postId,
+            @PathVariable Long commentId,
+            @RequestBody CommentRequest request
+    ) {
+        if (request.content() == null || request.content().isBlank()) {
+            return ResponseEntity.badRequest().body("Comment content is required");
+        }
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return commentRepository.findByIdAndPostId(commentId, postId)
+                .map(comment -> {
+                    if (!comment.getUser().getId().equals(user.getId())) {
+                        return ResponseEntity.badRequest()
+                                .body("You can only edit your own comments");
+                    }
+                    return ResponseEntity.ok(commentService.editComment(comment, request.content()));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{commentId}")
+    public ResponseEntity<?> deleteComment(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long postId,
+            @PathVariable Long commentId
+    ) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return commentRepository.findByIdAndPostId(commentId, postId)
+                .map(comment -> {
+                    // Authors can delete their comments, post owners can moderate their threads
+                    if (!commentRepository.existsByIdAndUserId(commentId, user.getId())
+                            && !commentRepository.existsByIdAndPostUserId(commentId, user.getId())) {
+                        return ResponseEntity.badRequest()
+                                .body("You can only delete your own comments or comments on your posts");
+                    }
+                    commentService.deleteComment(comment);
+                    return ResponseEntity.ok().build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
+
+record CommentRequest(
+    String content
+) {}
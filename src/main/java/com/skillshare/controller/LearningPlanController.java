@@ -1,19 +1,32 @@
 package com.skillshare.controller;
 
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
 import com.skillshare.model.LearningPlan;
 import com.skillshare.model.LearningStep;
+import com.skillshare.model.StepStatus;
 import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
+import com.skillshare.repository.FieldSelection;
+import com.skillshare.repository.InvalidFieldSelectionException;
 import com.skillshare.repository.LearningPlanRepository;
+import com.skillshare.repository.SparseFieldRepository;
+import com.skillshare.repository.SparseResource;
 import com.skillshare.repository.UserRepository;
+import com.skillshare.service.LearningPlanService;
+import com.skillshare.service.SummaryLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/learning-plans")
@@ -22,23 +35,55 @@ public class LearningPlanController {
 
     private final LearningPlanRepository learningPlanRepository;
     private final UserRepository userRepository;
+    private final LearningPlanService learningPlanService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SummaryLoader summaryLoader;
+    private final SparseFieldRepository sparseFieldRepository;
 
     @GetMapping
-    public ResponseEntity<Page<LearningPlan>> getLearningPlans(Pageable pageable) {
-        return ResponseEntity.ok(learningPlanRepository.findAll(pageable));
+    @QueryBudget(7)
+    public ResponseEntity<?> getLearningPlans(
+            @RequestParam(defaultValue = "true") boolean includeSteps,
+            @RequestParam(required = false) String fields,
+            Pageable pageable
+    ) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldRepository.findPage(
+                        FieldSelection.parse(SparseResource.LEARNING_PLAN, fields, pageable.getSort()),
+                        null, Map.of(), pageable));
+            } catch (InvalidFieldSelectionException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        if (!includeSteps) {
+            return ResponseEntity.ok(learningPlanService.getLearningPlanSummaries(pageable));
+        }
+        return ResponseEntity.ok(learningPlanService.getLearningPlans(pageable));
+    }
+
+    @GetMapping(params = "ids")
+    @QueryBudget(3)
+    public ResponseEntity<?> getLearningPlansByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > SummaryLoader.MAX_IDS) {
+            return ResponseEntity.badRequest().body("At most " + SummaryLoader.MAX_IDS + " ids per request");
+        }
+        return ResponseEntity.ok(summaryLoader.loadPlans(ids));
     }
 
     @GetMapping("/my-plans")
+    @QueryBudget(6)
     public ResponseEntity<Page<LearningPlan>> getMyLearningPlans(
             @AuthenticationPrincipal UserDetails userDetails,
             Pageable pageable
     ) {
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(learningPlanRepository.findByUserId(user.getId(), pageable));
+        return ResponseEntity.ok(learningPlanService.getLearningPlansByUser(user.getId(), pageable));
     }
 
     @PostMapping
+    @Transactional
     public ResponseEntity<LearningPlan> createLearningPlan(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody LearningPlanRequest request
@@ -65,10 +110,13 @@ public class LearningPlanController {
             }
         }
 
-        return ResponseEntity.ok(learningPlanRepository.save(plan));
+        plan = learningPlanRepository.save(plan);
+        domainEventPublisher.publish(new DomainEvent.LearningPlanCreated(plan.getId(), user.getId(), LocalDateTime.now()));
+        return ResponseEntity.ok(plan);
     }
 
     @PutMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> updateLearningPlan(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id,
@@ -83,9 +131,16 @@ public class LearningPlanController {
                     plan.setTitle(request.title());
                     plan.setDescription(request.description());
                     plan.setTargetCompletionDate(request.targetCompletionDate());
-                    
+
+                    // Cloned plans keep their template until they supply their own steps
+                    if (plan.getTemplate() != null && request.steps() == null) {
+                        plan.setPublishedTemplate(null);
+                        return ResponseEntity.ok(learningPlanRepository.save(plan));
+                    }
+                    learningPlanService.detachFromTemplate(plan);
+
                     // Update steps
-                    plan.getSteps().clear();
+                    learningPlanService.clearSteps(plan);
                     if (request.steps() != null) {
                         for (int i = 0; i < request.steps().size(); i++) {
                             LearningStepRequest stepRequest = request.steps().get(i);
@@ -115,11 +170,53 @@ public class LearningPlanController {
                         return ResponseEntity.badRequest()
                                 .body("You can only delete your own learning plans");
                     }
-                    learningPlanRepository.delete(plan);
+                    learningPlanService.deletePlan(plan);
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @PostMapping("/{id}/clone")
+    public ResponseEntity<?> cloneLearningPlan(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id
+    ) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return learningPlanRepository.findById(id)
+                .map(plan -> ResponseEntity.ok(learningPlanService.clonePlan(plan, user)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/steps")
+    @QueryBudget(4)
+    public ResponseEntity<?> getLearningSteps(@PathVariable Long id) {
+        return learningPlanRepository.findById(id)
+                .map(plan -> ResponseEntity.ok(learningPlanService.getSteps(plan)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/steps/{stepId}")
+    @QueryBudget(7)
+    public ResponseEntity<?> updateLearningStep(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id,
+            @PathVariable Long stepId,
+            @RequestBody LearningStepUpdateRequest request
+    ) {
+        return learningPlanRepository.findById(id)
+                .map(plan -> {
+                    if (!plan.getUser().getEmail().equals(userDetails.getUsername())) {
+                        return ResponseEntity.badRequest()
+                                .body("You can only update your own learning plans");
+                    }
+                    return ResponseEntity.ok(learningPlanService.updateStep(
+                            plan, stepId, request.status(), request.title(),
+                            request.description(), request.resourceUrl()));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
 
 record LearningPlanRequest(
@@ -134,3 +231,10 @@ record LearningStepRequest(
     String description,
     String resourceUrl
 ) {}
+
+record LearningStepUpdateRequest(
+    StepStatus status,
+    String title,
+    String description,
+    String resourceUrl
+) {}
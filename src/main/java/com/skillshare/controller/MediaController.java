@@ -0,0 +1,117 @@
+package com.skillshare.controller;
+
+import com.skillshare.model.User;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.FileStorageService;
+import com.skillshare.service.ImageDerivativeService;
+import com.skillshare.service.PendingUploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    public static final String MEDIA_PATH = "/media/";
+
+    private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PendingUploadService pendingUploadService;
+
+    @Value("${file.cache-max-age:P365D}")
+    private Duration cacheMaxAge;
+
+    @Value("${file.fallback-cache-max-age:PT1M}")
+    private Duration fallbackCacheMaxAge;
+
+    @PostMapping
+    public ResponseEntity<MediaUploadResponse> uploadMedia(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        String fileName = fileStorageService.storeFile(file);
+        pendingUploadService.record(user.getId(), fileName);
+        imageDerivativeService.scheduleVariants(fileName);
+        return ResponseEntity.ok(new MediaUploadResponse(fileName, MEDIA_PATH + fileName));
+    }
+
+    /**
+     * Streams a stored file. Range and multi-range requests are answered with
+     * 206 by Spring's resource region support, so video seeking works without
+     * loading the file into memory. With a width hint {@code w}, the smallest
+     * ready variant at least that wide is served instead of the original.
+     * <p>
+     * Media shown on a post or as a profile picture is readable without a
+     * token, since image and video tags cannot send one. Anything else, such
+     * as an upload not yet attached to a post, needs an authenticated caller.
+     * Content-hashed names are not secrets: anyone holding a file can derive
+     * its name.
+     */
+    @GetMapping("/{fileName:.+}")
+    public ResponseEntity<Resource> getMedia(
+            @PathVariable String fileName,
+            @RequestParam(name = "w", required = false) Integer width,
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest
+    ) throws IOException {
+        boolean shared = isShared(MEDIA_PATH + fileName);
+        if (!shared && userDetails == null) {
+            // Same answer as a missing file, so the name cannot be probed
+            return ResponseEntity.notFound().build();
+        }
+
+        String servedName = imageDerivativeService.resolveVariant(fileName, width);
+        Resource resource = fileStorageService.loadAsResource(servedName).orElse(null);
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long length = resource.contentLength();
+        long lastModified = resource.lastModified();
+        // Content-addressed names carry their own strong validator
+        String etag = "\"" + fileStorageService.contentHash(servedName)
+                .orElseGet(() -> Long.toHexString(length) + "-" + Long.toHexString(lastModified)) + "\"";
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+
+        // Stored names are never reused, so their content can be cached for good. A width
+        // request answered with the original is only cached briefly, until the variant is ready
+        boolean fallback = width != null && width > 0 && servedName.equals(fileName);
+        CacheControl cacheControl = fallback
+                ? CacheControl.maxAge(fallbackCacheMaxAge)
+                : CacheControl.maxAge(cacheMaxAge).immutable();
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(servedName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .cacheControl(shared ? cacheControl.cachePublic() : cacheControl.cachePrivate())
+                .body(resource);
+    }
+
+    private boolean isShared(String mediaUrl) {
+        return postRepository.isPostMedia(mediaUrl) || userRepository.existsByProfilePictureAndDeletedFalse(mediaUrl);
+    }
+}
+
+record MediaUploadResponse(
+    String fileName,
+    String fileUrl
+) {}
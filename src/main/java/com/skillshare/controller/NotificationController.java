@@ -2,6 +2,7 @@ package com.skillshare.controller;
 
 import com.skillshare.model.Notification;
 import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
 import com.skillshare.repository.NotificationRepository;
 import com.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,7 @@ public class NotificationController {
     private final UserRepository userRepository;
 
     @GetMapping
+    @QueryBudget(4)
     public ResponseEntity<Page<Notification>> getNotifications(
             @AuthenticationPrincipal UserDetails userDetails,
             Pageable pageable
@@ -31,6 +33,7 @@ public class NotificationController {
     }
 
     @GetMapping("/unread-count")
+    @QueryBudget(2)
     public ResponseEntity<Long> getUnreadCount(@AuthenticationPrincipal UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -1,21 +1,35 @@
 package com.skillshare.controller;
 
 import com.skillshare.dto.PostRequest;
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
 import com.skillshare.model.Post;
 import com.skillshare.model.PostType;
 import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
+import com.skillshare.repository.FieldSelection;
+import com.skillshare.repository.InvalidFieldSelectionException;
 import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.SparseFieldRepository;
+import com.skillshare.repository.SparseResource;
 import com.skillshare.repository.UserRepository;
+import com.skillshare.service.ContentDeletionService;
+import com.skillshare.service.PendingUploadService;
+import com.skillshare.service.SummaryLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/posts")
@@ -24,24 +38,82 @@ public class PostController {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final ContentDeletionService contentDeletionService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SummaryLoader summaryLoader;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final PendingUploadService pendingUploadService;
 
     @GetMapping
-    public ResponseEntity<Page<Post>> getPosts(Pageable pageable) {
+    @QueryBudget(5)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getPosts(
+            @RequestParam(required = false) String fields,
+            Pageable pageable
+    ) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldRepository.findPage(
+                        FieldSelection.parse(SparseResource.POST, fields, pageable.getSort()),
+                        null, Map.of(), pageable));
+            } catch (InvalidFieldSelectionException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         return ResponseEntity.ok(postRepository.findAll(pageable));
     }
 
+    /**
+     * Compact summaries of the given posts, with their authors, for
+     * rendering linked posts without one request each.
+     */
+    @GetMapping(params = "ids")
+    @QueryBudget(3)
+    public ResponseEntity<?> getPostsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > SummaryLoader.MAX_IDS) {
+            return ResponseEntity.badRequest().body("At most " + SummaryLoader.MAX_IDS + " ids per request");
+        }
+        return ResponseEntity.ok(summaryLoader.loadPosts(ids));
+    }
+
+    /**
+     * One user's posts, newest first. Scrolling past the recent ones
+     * continues into the archive.
+     */
+    @GetMapping(params = "userId")
+    @QueryBudget(6)
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<Post>> getPostsByUser(@RequestParam Long userId, Pageable pageable) {
+        return ResponseEntity.ok(postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable));
+    }
+
     @GetMapping("/feed")
-    public ResponseEntity<Page<Post>> getFeed(
+    @QueryBudget(5)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getFeed(
             @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String fields,
             Pageable pageable
     ) {
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldRepository.findPage(
+                        FieldSelection.parse(SparseResource.POST, fields, pageable.getSort()),
+                        "e.user.id IN (SELECT f.id FROM User u JOIN u.following f WHERE u.id = :userId)",
+                        Map.of("userId", user.getId()), pageable));
+            } catch (InvalidFieldSelectionException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         return ResponseEntity.ok(postRepository.findFollowingUsersPosts(user.getId(), pageable));
     }
 
     @PostMapping
-    public ResponseEntity<Post> createPost(
+    @QueryBudget(8)
+    @Transactional
+    public ResponseEntity<?> createPost(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody PostRequest postRequest
     ) {
@@ -53,11 +125,17 @@ public class PostController {
         post.setUser(user);
         post.setType(PostType.valueOf(postRequest.getType()));
 
-        // Handle media URLs if provided
-        // This would typically involve storing the URLs in the post entity
-        // You might need to add a mediaUrls field to your Post entity
-
-        return ResponseEntity.ok(postRepository.save(post));
+        // Media is uploaded first through POST /media; the post takes over each upload's reference
+        if (postRequest.getMediaUrls() != null) {
+            if (!pendingUploadService.claim(user.getId(), postRequest.getMediaUrls())) {
+                return ResponseEntity.badRequest().body("Media must be your own upload and not already used by a post");
+            }
+            post.setMediaUrls(new ArrayList<>(postRequest.getMediaUrls()));
+        }
+
+        post = postRepository.save(post);
+        domainEventPublisher.publish(new DomainEvent.PostCreated(post.getId(), user.getId(), post.getCreatedAt()));
+        return ResponseEntity.ok(post);
     }
 
     @PutMapping("/{id}")
@@ -89,13 +167,15 @@ public class PostController {
                         return ResponseEntity.badRequest()
                                 .body("You can only delete your own posts");
                     }
-                    postRepository.delete(post);
+                    contentDeletionService.deletePost(post);
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/like")
+    @QueryBudget(6)
+    @Transactional
     public ResponseEntity<?> likePost(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id
@@ -105,13 +185,21 @@ public class PostController {
 
         return postRepository.findById(id)
                 .map(post -> {
-                    post.getLikes().add(user);
-                    return ResponseEntity.ok(postRepository.save(post));
+                    // Written directly so the likes bag is not reloaded and rewritten row by row
+                    if (!postRepository.isPostLikedByUser(post.getId(), user.getId())) {
+                        postRepository.addLike(post.getId(), user.getId());
+                        domainEventPublisher.publish(new DomainEvent.PostLiked(
+                                post.getId(), post.getUser().getId(), user.getId(), post.getCreatedAt(),
+                                LocalDateTime.now()));
+                    }
+                    return ResponseEntity.ok(post);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}/like")
+    @QueryBudget(5)
+    @Transactional
     public ResponseEntity<?> unlikePost(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id
@@ -121,8 +209,12 @@ public class PostController {
 
         return postRepository.findById(id)
                 .map(post -> {
-                    post.getLikes().remove(user);
-                    return ResponseEntity.ok(postRepository.save(post));
+                    if (postRepository.deleteLikes(post.getId(), List.of(user.getId())) > 0) {
+                        domainEventPublisher.publish(new DomainEvent.PostUnliked(
+                                post.getId(), post.getUser().getId(), user.getId(), post.getCreatedAt(),
+                                LocalDateTime.now()));
+                    }
+                    return ResponseEntity.ok(post);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
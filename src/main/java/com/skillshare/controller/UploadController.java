@@ -0,0 +1,142 @@
+package com.skillshare.controller;
+
+import com.skillshare.model.UploadSession;
+import com.skillshare.model.User;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.ChunkedUploadService;
+import com.skillshare.service.ImageDerivativeService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/media/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final UserRepository userRepository;
+
+    @PostMapping
+    public ResponseEntity<?> initiateUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody UploadInitRequest request
+    ) throws IOException {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        try {
+            UploadSession session = chunkedUploadService.initiate(
+                    user.getId(), request.fileName(), request.size(), request.chunkSize());
+            return ResponseEntity.ok(UploadSessionResponse.of(session));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String id
+    ) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return chunkedUploadService.findSession(id, user.getId())
+                .map(session -> ResponseEntity.ok(UploadSessionResponse.of(session)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Receives one chunk as the raw request body. The body is streamed to disk
+     * as it arrives rather than being buffered by multipart handling.
+     */
+    @PutMapping(value = "/{id}", consumes = "application/octet-stream")
+    public ResponseEntity<?> uploadChunk(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String id,
+            @RequestParam long offset,
+            @RequestHeader(name = "X-Chunk-Checksum", required = false) String checksum,
+            HttpServletRequest request
+    ) throws IOException {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        UploadSession session = chunkedUploadService.findSession(id, user.getId()).orElse(null);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            UploadSession updated = chunkedUploadService.writeChunk(session, offset, request.getInputStream(), checksum);
+            return ResponseEntity.ok(UploadSessionResponse.of(updated));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> completeUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String id
+    ) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        UploadSession session = chunkedUploadService.findSession(id, user.getId()).orElse(null);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            String fileName = chunkedUploadService.complete(session);
+            imageDerivativeService.scheduleVariants(fileName);
+            return ResponseEntity.ok(new MediaUploadResponse(fileName, MediaController.MEDIA_PATH + fileName));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abortUpload(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable String id
+    ) throws IOException {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        UploadSession session = chunkedUploadService.findSession(id, user.getId()).orElse(null);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        chunkedUploadService.abort(session);
+        return ResponseEntity.ok().build();
+    }
+}
+
+record UploadInitRequest(
+    String fileName,
+    long size,
+    Integer chunkSize
+) {}
+
+record UploadSessionResponse(
+    String uploadId,
+    long size,
+    int chunkSize,
+    int chunkCount,
+    List<Integer> receivedChunks,
+    LocalDateTime expiresAt
+) {
+    static UploadSessionResponse of(UploadSession session) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getTotalSize(),
+                session.getChunkSize(),
+                session.getChunkCount(),
+                session.receivedChunkSet().stream().boxed().toList(),
+                session.getExpiresAt()
+        );
+    }
+}
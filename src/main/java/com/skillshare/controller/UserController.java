@@ -1,15 +1,32 @@
 package com.skillshare.controller;
 
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
 import com.skillshare.model.User;
+import com.skillshare.monitoring.QueryBudget;
+import com.skillshare.repository.FieldSelection;
+import com.skillshare.repository.InvalidFieldSelectionException;
+import com.skillshare.repository.SparseFieldRepository;
+import com.skillshare.repository.SparseResource;
 import com.skillshare.repository.UserRepository;
+import com.skillshare.service.ContentDeletionService;
+import com.skillshare.service.FileStorageService;
+import com.skillshare.service.ImageDerivativeService;
+import com.skillshare.service.SummaryLoader;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/users")
@@ -17,8 +34,28 @@ import java.util.List;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ContentDeletionService contentDeletionService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SummaryLoader summaryLoader;
+    private final SparseFieldRepository sparseFieldRepository;
+
+    /**
+     * Names and avatars for the given users, for rendering lists of authors
+     * and mentions without fetching each full profile.
+     */
+    @GetMapping(params = "ids")
+    @QueryBudget(2)
+    public ResponseEntity<?> getUsersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > SummaryLoader.MAX_IDS) {
+            return ResponseEntity.badRequest().body("At most " + SummaryLoader.MAX_IDS + " ids per request");
+        }
+        return ResponseEntity.ok(summaryLoader.loadUsers(ids));
+    }
 
     @GetMapping("/me")
+    @QueryBudget(2)
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
         return userRepository.findByEmail(userDetails.getUsername())
                 .map(ResponseEntity::ok)
@@ -26,8 +63,10 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<User> getUser(@PathVariable Long id) {
         return userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -46,6 +85,16 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @DeleteMapping("/me")
+    public ResponseEntity<?> deleteAccount(@AuthenticationPrincipal UserDetails userDetails) {
+        return userRepository.findByEmail(userDetails.getUsername())
+                .map(user -> {
+                    contentDeletionService.deleteUser(user);
+                    return ResponseEntity.noContent().build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/me/profile-picture")
     public ResponseEntity<?> updateProfilePicture(
             @AuthenticationPrincipal UserDetails userDetails,
@@ -53,14 +102,28 @@ public class UserController {
     ) {
         return userRepository.findByEmail(userDetails.getUsername())
                 .map(user -> {
-                    // TODO: Handle profile picture upload and storage
-                    // user.setProfilePicture(uploadedFileUrl);
-                    return ResponseEntity.ok(userRepository.save(user));
+                    try {
+                        String fileName = fileStorageService.storeFile(file);
+                        imageDerivativeService.scheduleVariants(fileName);
+
+                        String previous = user.getProfilePicture();
+                        user.setProfilePicture(MediaController.MEDIA_PATH + fileName);
+                        User saved = userRepository.save(user);
+
+                        if (previous != null && previous.startsWith(MediaController.MEDIA_PATH)) {
+                            imageDerivativeService.release(previous.substring(MediaController.MEDIA_PATH.length()));
+                        }
+                        return ResponseEntity.ok(saved);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/follow")
+    @QueryBudget(6)
+    @Transactional
     public ResponseEntity<?> followUser(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id
@@ -70,16 +133,22 @@ public class UserController {
         }
 
         return userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
                 .map(userToFollow -> {
                     User currentUser = userRepository.findByEmail(userDetails.getUsername()).get();
-                    currentUser.getFollowing().add(userToFollow);
-                    userRepository.save(currentUser);
+                    // The join table is owned by the followers side, so write the row directly
+                    if (!userRepository.isFollowing(currentUser.getId(), userToFollow.getId())) {
+                        userRepository.addFollowing(currentUser.getId(), userToFollow.getId());
+                        domainEventPublisher.publish(new DomainEvent.UserFollowed(
+                                currentUser.getId(), userToFollow.getId(), LocalDateTime.now()));
+                    }
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}/follow")
+    @Transactional
     public ResponseEntity<?> unfollowUser(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id
@@ -91,15 +160,30 @@ public class UserController {
         return userRepository.findById(id)
                 .map(userToUnfollow -> {
                     User currentUser = userRepository.findByEmail(userDetails.getUsername()).get();
-                    currentUser.getFollowing().remove(userToUnfollow);
-                    userRepository.save(currentUser);
+                    userRepository.deleteFollowing(currentUser.getId(), List.of(userToUnfollow.getId()));
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String query) {
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchUsers(
+            @RequestParam String query,
+            @RequestParam(required = false) String fields,
+            Pageable pageable
+    ) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(sparseFieldRepository.findPage(
+                        FieldSelection.parse(SparseResource.USER, fields, pageable.getSort()),
+                        "e.deleted = false AND (e.name LIKE :query OR e.email LIKE :query)",
+                        Map.of("query", "%" + query + "%"), pageable));
+            } catch (InvalidFieldSelectionException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         return ResponseEntity.ok(userRepository.searchUsers(query));
     }
 }
@@ -0,0 +1,19 @@
+package com.skillshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityBucket {
+    private LocalDateTime start;
+    private int posts;
+    private int likesReceived;
+    private int stepsCompleted;
+}
@@ -0,0 +1,25 @@
+package com.skillshare.dto;
+
+import com.skillshare.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityReport {
+    private RollupGranularity granularity;
+    // One entry per bucket in the range, including empty ones
+    private List<ActivityBucket> buckets;
+    private long totalPosts;
+    private long totalLikesReceived;
+    private long totalStepsCompleted;
+    // Consecutive buckets with a post or a completed step, counted in buckets of the requested granularity
+    private int currentStreak;
+    private int longestStreak;
+}
@@ -0,0 +1,18 @@
+package com.skillshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPage {
+    private List<CommentResponse> comments;
+    // Pass back as ?cursor= to get the next (older) page; null on the last page
+    private Long nextCursor;
+}
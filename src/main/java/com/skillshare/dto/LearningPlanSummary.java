@@ -0,0 +1,35 @@
+package com.skillshare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skillshare.model.PlanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LearningPlanSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private PlanStatus status;
+    private LocalDateTime targetCompletionDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long stepCount;
+    private Long ownerId;
+    // Only filled in by the batch lookup
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UserSummary owner;
+
+    public LearningPlanSummary(Long id, String title, String description, PlanStatus status,
+                               LocalDateTime targetCompletionDate, LocalDateTime createdAt,
+                               LocalDateTime updatedAt, Long stepCount, Long ownerId) {
+        this(id, title, description, status, targetCompletionDate, createdAt, updatedAt, stepCount, ownerId, null);
+    }
+}
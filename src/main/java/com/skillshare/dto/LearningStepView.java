@@ -0,0 +1,20 @@
+package com.skillshare.dto;
+
+import com.skillshare.model.StepStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LearningStepView {
+    private Long id;
+    private String title;
+    private String description;
+    private String resourceUrl;
+    private Integer orderIndex;
+    private StepStatus status;
+}
@@ -0,0 +1,31 @@
+package com.skillshare.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.skillshare.model.PostType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummary {
+    private Long id;
+    private PostType type;
+    private String content;
+    private long commentCount;
+    private LocalDateTime createdAt;
+    @JsonIgnore
+    private Long authorId;
+    private UserSummary author;
+
+    // Used by the JPQL constructor expression; the author is filled in afterwards
+    public PostSummary(Long id, Long authorId, PostType type, String content, long commentCount,
+                       LocalDateTime createdAt) {
+        this(id, type, content, commentCount, createdAt, authorId, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.skillshare.event;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Something that happened in the domain, published through
+ * {@link DomainEventPublisher} once the change that raised it commits.
+ * Events carry ids and the time of the change; subscribers load whatever
+ * other state they need.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = DomainEvent.PostCreated.class, name = "PostCreated"),
+        @JsonSubTypes.Type(value = DomainEvent.PostLiked.class, name = "PostLiked"),
+        @JsonSubTypes.Type(value = DomainEvent.PostUnliked.class, name = "PostUnliked"),
+        @JsonSubTypes.Type(value = DomainEvent.PostDeleted.class, name = "PostDeleted"),
+        @JsonSubTypes.Type(value = DomainEvent.CommentAdded.class, name = "CommentAdded"),
+        @JsonSubTypes.Type(value = DomainEvent.UserFollowed.class, name = "UserFollowed"),
+        @JsonSubTypes.Type(value = DomainEvent.LearningPlanCreated.class, name = "LearningPlanCreated"),
+        @JsonSubTypes.Type(value = DomainEvent.LearningPlanDeleted.class, name = "LearningPlanDeleted"),
+        @JsonSubTypes.Type(value = DomainEvent.StepCompleted.class, name = "StepCompleted"),
+        @JsonSubTypes.Type(value = DomainEvent.StepUncompleted.class, name = "StepUncompleted")
+})
+public sealed interface DomainEvent {
+
+    LocalDateTime occurredAt();
+
+    record PostCreated(Long postId, Long authorId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * Carries the post's creation time because likes are counted in the
+     * post's activity bucket, not the bucket of the like.
+     */
+    record PostLiked(Long postId, Long postAuthorId, Long likerId, LocalDateTime postCreatedAt,
+                     LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * A like was taken back, either by the liker or because their account
+     * was removed.
+     */
+    record PostUnliked(Long postId, Long postAuthorId, Long likerId, LocalDateTime postCreatedAt,
+                       LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * A post was deleted together with the likes it had received from other
+     * users at that moment.
+     */
+    record PostDeleted(Long postId, Long authorId, LocalDateTime postCreatedAt, long likesReceived,
+                       LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    record CommentAdded(Long commentId, Long postId, Long postAuthorId, Long commenterId,
+                        LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    record UserFollowed(Long followerId, Long followedId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    record LearningPlanCreated(Long planId, Long ownerId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * A plan was deleted together with its completed steps, listed by the
+     * time each was completed.
+     */
+    record LearningPlanDeleted(Long planId, Long ownerId, List<LocalDateTime> stepsCompletedAt,
+                               LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * A learner moved a step of one of their plans to completed, either on
+     * the plan itself or on their progress through a shared template. The
+     * event time is the step's stored completion time.
+     */
+    record StepCompleted(Long planId, Long stepId, Long ownerId, LocalDateTime occurredAt) implements DomainEvent {
+    }
+
+    /**
+     * A completed step was reopened, or removed when its plan's steps were
+     * replaced. Carries the time it had been completed.
+     */
+    record StepUncompleted(Long planId, Long stepId, Long ownerId, LocalDateTime completedAt,
+                           LocalDateTime occurredAt) implements DomainEvent {
+    }
+}
@@ -0,0 +1,54 @@
+package com.skillshare.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.model.OutboxEvent;
+import com.skillshare.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records a domain event in the outbox as part of the caller's transaction,
+ * then queues it on the {@link EventBus} once that transaction commits. A
+ * rolled-back change never publishes, and a committed one is never lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DomainEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventBus eventBus;
+    private final ObjectMapper objectMapper;
+
+    public void publish(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Domain events must be published inside the transaction that made the change");
+        }
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(event.getClass().getSimpleName());
+        outboxEvent.setPayload(serialize(event));
+        EventBus.Envelope envelope = new EventBus.Envelope(outboxEventRepository.save(outboxEvent).getId(), event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!eventBus.offer(envelope)) {
+                    log.debug("Event bus is full; {} will be delivered from the outbox", event);
+                }
+            }
+        });
+    }
+
+    private String serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+    }
+}
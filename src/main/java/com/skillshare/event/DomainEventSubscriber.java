@@ -0,0 +1,14 @@
+package com.skillshare.event;
+
+import java.util.List;
+
+/**
+ * Receives domain events in batches on the event bus thread, inside a
+ * transaction that also records the events as applied by this subscriber.
+ * If a subscriber throws, its changes roll back and the batch is redelivered
+ * later; subscribers that already applied an event do not see it again.
+ */
+public interface DomainEventSubscriber {
+
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,266 @@
+package com.skillshare.event;
+
+import com.skillshare.repository.OutboxEventRepository;
+import com.skillshare.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer that hands committed
+ * domain events to the subscribers in batches on one background thread.
+ * Producers never block: when the ring is full the event simply stays in the
+ * outbox and {@link OutboxRelay} delivers it later, through the same thread.
+ */
+@Slf4j
+@Component
+public class EventBus implements SmartLifecycle {
+
+    private final List<DomainEventSubscriber> subscribers;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ProcessedEventRepository processedEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    private final AtomicReferenceArray<Envelope> slots;
+    private final int mask;
+    // Next sequence a producer will claim, and next sequence the consumer will read
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final Queue<Redelivery> redeliveries = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private volatile boolean idle;
+    private volatile Thread consumer;
+
+    public EventBus(
+            List<DomainEventSubscriber> subscribers,
+            OutboxEventRepository outboxEventRepository,
+            ProcessedEventRepository processedEventRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.events.ring-size:8192}") int ringSize,
+            @Value("${app.events.batch-size:256}") int batchSize
+    ) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("app.events.ring-size must be a power of two");
+        }
+        this.subscribers = subscribers;
+        this.outboxEventRepository = outboxEventRepository;
+        this.processedEventRepository = processedEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.slots = new AtomicReferenceArray<>(ringSize);
+        this.mask = ringSize - 1;
+        Gauge.builder("domain.events.backlog", this, bus -> bus.head.get() - bus.tail)
+                .description("Events waiting in the event bus ring buffer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a committed event. Returns false if the ring is full or the bus
+     * is stopped, in which case the outbox relay picks the event up instead.
+     */
+    public boolean offer(Envelope envelope) {
+        if (!running) {
+            return false;
+        }
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= slots.length()) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, envelope);
+        if (idle) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Queues events read back from the outbox for delivery on the consumer
+     * thread, so subscribers are never called from two threads at once. The
+     * future completes with whether the batch was delivered, or false if the
+     * bus is stopped.
+     */
+    public CompletableFuture<Boolean> redeliver(List<Envelope> batch) {
+        if (!running) {
+            return CompletableFuture.completedFuture(false);
+        }
+        Redelivery redelivery = new Redelivery(batch, new CompletableFuture<>());
+        redeliveries.add(redelivery);
+        if (!running && redeliveries.remove(redelivery)) {
+            // Stopped in between; the consumer may already have drained the queue
+            redelivery.result().complete(false);
+        }
+        LockSupport.unpark(consumer);
+        return redelivery.result();
+    }
+
+    /**
+     * Hands a batch to every subscriber and, if all of them succeed, removes
+     * the events from the outbox. Returns whether the batch was delivered.
+     * Only called on the consumer thread.
+     */
+    boolean dispatch(List<Envelope> batch) {
+        // Rows already gone were delivered in full, e.g. by the relay while this copy sat in the ring
+        Set<Long> pending = new HashSet<>(outboxEventRepository.findExistingIds(
+                batch.stream().map(Envelope::outboxId).toList()));
+        List<Envelope> live = batch.stream().filter(envelope -> pending.contains(envelope.outboxId())).toList();
+        if (live.isEmpty()) {
+            return true;
+        }
+
+        boolean delivered = true;
+        for (DomainEventSubscriber subscriber : subscribers) {
+            try {
+                deliver(subscriber, live);
+            } catch (RuntimeException e) {
+                delivered = false;
+                log.warn("{} failed on a batch of {} events; they stay in the outbox for redelivery",
+                        subscriber.getClass().getSimpleName(), live.size(), e);
+            }
+        }
+        if (!delivered) {
+            return false;
+        }
+
+        List<Long> ids = live.stream().map(Envelope::outboxId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            processedEventRepository.deleteByEventIdIn(ids);
+            outboxEventRepository.deleteAllByIdInBatch(ids);
+        });
+        for (Envelope envelope : live) {
+            Counter.builder("domain.events")
+                    .description("Domain events delivered to subscribers")
+                    .tag("type", envelope.event().getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return true;
+    }
+
+    /**
+     * Runs the subscriber on the events it has not applied yet and records
+     * them as applied in the same transaction as its own changes.
+     */
+    private void deliver(DomainEventSubscriber subscriber, List<Envelope> batch) {
+        String name = ClassUtils.getUserClass(subscriber).getSimpleName();
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> applied = new HashSet<>(processedEventRepository.findEventIds(
+                    name, batch.stream().map(Envelope::outboxId).toList()));
+            List<Envelope> fresh = batch.stream()
+                    .filter(envelope -> !applied.contains(envelope.outboxId()))
+                    .toList();
+            if (fresh.isEmpty()) {
+                return;
+            }
+            subscriber.onEvents(fresh.stream().map(Envelope::event).toList());
+            processedEventRepository.markProcessed(name, fresh.stream().map(Envelope::outboxId).toList());
+        });
+    }
+
+    private boolean tryDispatch(List<Envelope> batch) {
+        try {
+            return dispatch(batch);
+        } catch (RuntimeException e) {
+            log.warn("Could not complete a batch of {} events; they stay in the outbox for redelivery",
+                    batch.size(), e);
+            return false;
+        }
+    }
+
+    private void consume() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running || tail != head.get()) {
+            Redelivery redelivery = redeliveries.poll();
+            if (redelivery != null) {
+                redelivery.result().complete(tryDispatch(redelivery.batch()));
+                continue;
+            }
+
+            long next = tail;
+            while (batch.size() < batchSize) {
+                int index = (int) next & mask;
+                Envelope envelope = slots.get(index);
+                if (envelope == null) {
+                    // Either empty or claimed by a producer that has not written it yet
+                    break;
+                }
+                slots.set(index, null);
+                batch.add(envelope);
+                next++;
+            }
+            tail = next;
+
+            if (batch.isEmpty()) {
+                idle = true;
+                if (tail == head.get() && redeliveries.isEmpty()) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                }
+                idle = false;
+                continue;
+            }
+            tryDispatch(batch);
+            batch.clear();
+        }
+
+        Redelivery redelivery;
+        while ((redelivery = redeliveries.poll()) != null) {
+            redelivery.result().complete(false);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        consumer = Thread.ofPlatform().name("domain-events").daemon().start(this::consume);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public record Envelope(Long outboxId, DomainEvent event) {
+    }
+
+    private record Redelivery(List<Envelope> batch, CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.skillshare.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.model.OutboxEvent;
+import com.skillshare.repository.OutboxEventRepository;
+import com.skillshare.repository.ProcessedEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events that the {@link EventBus} never got to: events
+ * committed just before the JVM died, events that found the ring full, and
+ * batches a subscriber failed on. Only rows older than the relay delay are
+ * picked up, so events still on their way through the ring are usually left
+ * alone; one that is in both places is delivered once, whichever copy the
+ * bus reaches first.
+ * <p>
+ * A failed batch is retried one event at a time, so only the events that
+ * actually fail are held back. An event that cannot be read, or that has
+ * failed {@code app.events.max-attempts} runs, is moved to the dead letters
+ * and the run carries on with the events behind it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ProcessedEventRepository processedEventRepository;
+    private final EventBus eventBus;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.events.relay-delay:PT30S}")
+    private Duration relayDelay;
+
+    @Value("${app.events.batch-size:256}")
+    private int batchSize;
+
+    @Value("${app.events.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.events.redelivery-timeout:PT30S}")
+    private Duration redeliveryTimeout;
+
+    @Scheduled(fixedDelayString = "${app.events.relay-interval:PT30S}")
+    public void redeliver() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(relayDelay);
+        long afterId = 0;
+        List<OutboxEvent> pending;
+        do {
+            pending = outboxEventRepository.findCreatedBefore(afterId, cutoff, PageRequest.of(0, batchSize));
+            if (pending.isEmpty()) {
+                return;
+            }
+            afterId = pending.get(pending.size() - 1).getId();
+
+            List<EventBus.Envelope> envelopes = toEnvelopes(pending);
+            Boolean delivered = envelopes.isEmpty() ? Boolean.TRUE : await(eventBus.redeliver(envelopes));
+            if (delivered == null) {
+                return;
+            }
+            if (delivered) {
+                log.info("Redelivered {} events from the outbox", envelopes.size());
+                continue;
+            }
+
+            Map<Long, OutboxEvent> byId = pending.stream()
+                    .collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+            if (envelopes.size() == 1) {
+                recordFailure(byId.get(envelopes.get(0).outboxId()));
+                continue;
+            }
+            for (EventBus.Envelope envelope : envelopes) {
+                Boolean single = await(eventBus.redeliver(List.of(envelope)));
+                if (single == null) {
+                    return;
+                }
+                if (!single) {
+                    recordFailure(byId.get(envelope.outboxId()));
+                }
+            }
+        } while (pending.size() == batchSize);
+    }
+
+    /**
+     * Waits a bounded time for the bus thread, so a slow subscriber holds up
+     * only this run and not the other scheduled jobs sharing the scheduler.
+     * Returns null when the run should stop: on timeout, or when the bus is
+     * stopped. A batch still queued then is delivered by the bus later.
+     */
+    private Boolean await(CompletableFuture<Boolean> result) {
+        try {
+            boolean delivered = result.get(redeliveryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!delivered && !eventBus.isRunning()) {
+                return null;
+            }
+            return delivered;
+        } catch (TimeoutException e) {
+            log.warn("Event bus did not finish a redelivery within {}; resuming on the next run", redeliveryTimeout);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void recordFailure(OutboxEvent outboxEvent) {
+        if (outboxEvent.getAttempts() + 1 >= maxAttempts) {
+            deadLetter(outboxEvent, "Failed " + (outboxEvent.getAttempts() + 1) + " deliveries");
+        } else {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.incrementAttempts(outboxEvent.getId()));
+        }
+    }
+
+    private void deadLetter(OutboxEvent outboxEvent, String reason) {
+        log.error("Moving outbox event {} ({}) to the dead letters: {}",
+                outboxEvent.getId(), outboxEvent.getType(), reason);
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.copyToDeadLetters(outboxEvent.getId(), LocalDateTime.now(),
+                    reason.length() > 500 ? reason.substring(0, 500) : reason);
+            processedEventRepository.deleteByEventIdIn(List.of(outboxEvent.getId()));
+            outboxEventRepository.deleteAllByIdInBatch(List.of(outboxEvent.getId()));
+        });
+    }
+
+    private List<EventBus.Envelope> toEnvelopes(List<OutboxEvent> outboxEvents) {
+        List<EventBus.Envelope> envelopes = new ArrayList<>(outboxEvents.size());
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            try {
+                envelopes.add(new EventBus.Envelope(outboxEvent.getId(),
+                        objectMapper.readValue(outboxEvent.getPayload(), DomainEvent.class)));
+            } catch (JsonProcessingException e) {
+                deadLetter(outboxEvent, "Unreadable payload: " + e.getOriginalMessage());
+            }
+        }
+        return envelopes;
+    }
+}
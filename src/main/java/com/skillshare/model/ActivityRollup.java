@@ -0,0 +1,51 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+
+/**
+ * Activity counters for one user in one time bucket. Rows are updated in
+ * place from domain events, so reading a range costs one row per bucket
+ * regardless of how much activity it covers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "activity_rollups")
+@IdClass(ActivityRollup.Key.class)
+public class ActivityRollup {
+    @Id
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private RollupGranularity granularity;
+
+    @Id
+    private Integer bucket;
+
+    private int posts;
+
+    private int likesReceived;
+
+    private int stepsCompleted;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private RollupGranularity granularity;
+        private Integer bucket;
+    }
+}
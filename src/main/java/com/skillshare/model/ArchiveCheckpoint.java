@@ -0,0 +1,41 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far the current archive run for one table family has got. A run moves
+ * rows created before {@code cutoff} in id order; {@code lastId} is the
+ * highest id it has committed, and {@code completedAt} is set once nothing
+ * is left, after which the next run starts over with a new cutoff.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "archive_checkpoints")
+public class ArchiveCheckpoint {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    private long rowsArchived;
+}
@@ -0,0 +1,60 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A post moved to the archive by {@code ArchiveService}. Archived posts are
+ * read-only history: they keep their comment count and media but can no
+ * longer be liked, commented on or edited.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "posts_archive", indexes = {
+    @Index(name = "idx_posts_archive_user_created", columnList = "user_id, created_at")
+})
+public class ArchivedPost {
+    @Id
+    private Long id;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PostType type;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    @ElementCollection
+    @BatchSize(size = 50)
+    @CollectionTable(name = "post_media_archive", joinColumns = @JoinColumn(name = "post_id"))
+    @Column(name = "media_url")
+    @Builder.Default
+    private List<String> mediaUrls = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
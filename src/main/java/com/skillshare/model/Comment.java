@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_id", columnList = "post_id, id"))
 @EntityListeners(AuditingEntityListener.class)
 public class Comment {
     @Id
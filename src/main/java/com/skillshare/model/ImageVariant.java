@@ -0,0 +1,46 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resized copy of an uploaded image. Variants belong to the content hash
+ * of the original, so identical uploads share them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "image_variants",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"source_hash", "width"})
+)
+@EntityListeners(AuditingEntityListener.class)
+public class ImageVariant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", length = 64, nullable = false)
+    private String sourceHash;
+
+    @Column(nullable = false)
+    private int width;
+
+    @Column(nullable = false)
+    private int height;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
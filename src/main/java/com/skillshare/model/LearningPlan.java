@@ -1,8 +1,9 @@
 package com.skillshare.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.skillshare.dto.LearningStepView;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,6 +11,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -23,7 +28,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "learning_plans")
+@Table(name = "learning_plans", indexes = @Index(name = "idx_learning_plans_user_status", columnList = "user_id, status"))
+@SQLRestriction("deleted = false")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 public class LearningPlan {
     @Id
@@ -46,15 +53,54 @@ public class LearningPlan {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @JsonManagedReference
+    // Serialized through getStepsForResponse, which also covers cloned plans
+    @JsonIgnore
     @OneToMany(mappedBy = "learningPlan", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("orderIndex ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<LearningStep> steps = new ArrayList<>();
 
+    // Set on cloned plans; their steps come from the shared template
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_id")
+    private PlanTemplate template;
+
+    // A cloned plan's template steps merged with the learner's progress, filled in by listings
+    @JsonIgnore
+    @Transient
+    private List<LearningStepView> templateSteps;
+
+    // Latest snapshot of this plan's own content, reused until the plan is edited
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "published_template_id")
+    private PlanTemplate publishedTemplate;
+
     private LocalDateTime targetCompletionDate;
 
+    // Set when the owning account is deleted, until the reaper removes the plan
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    @JsonProperty("steps")
+    public List<?> getStepsForResponse() {
+        return template != null && templateSteps != null ? templateSteps : steps;
+    }
+
+    @JsonProperty("templateId")
+    public Long getTemplateId() {
+        return template != null ? template.getId() : null;
+    }
 }
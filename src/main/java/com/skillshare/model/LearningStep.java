@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -21,6 +23,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "learning_steps")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 public class LearningStep {
     @Id
@@ -48,6 +51,9 @@ public class LearningStep {
     @JoinColumn(name = "learning_plan_id", nullable = false)
     private LearningPlan learningPlan;
 
+    // Set while the step is completed; activity rollups count the step at this time
+    private LocalDateTime completedAt;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -15,7 +15,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_read_created", columnList = "user_id, read, created_at"),
+    @Index(name = "idx_notifications_link", columnList = "link")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Notification {
     @Id
@@ -0,0 +1,41 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * An upload that no post has claimed yet. The row holds the reference the
+ * upload took on its blob; creating a post hands that reference over to the
+ * post, and unclaimed rows are released once they expire.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pending_uploads", indexes = {
+    @Index(name = "idx_pending_uploads_user_file", columnList = "user_id, file_name"),
+    @Index(name = "idx_pending_uploads_created", columnList = "created_at")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class PendingUpload {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frozen snapshot of a learning plan's content. Cloned plans point at a
+ * template instead of copying its steps, so the step text is stored once no
+ * matter how many learners clone it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "plan_templates")
+@EntityListeners(AuditingEntityListener.class)
+public class PlanTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String description;
+
+    // Left out of equals and hashCode; the source plan points back here through its published template
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_plan_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private LearningPlan sourcePlan;
+
+    @OneToMany(mappedBy = "template", cascade = CascadeType.ALL)
+    @OrderBy("orderIndex ASC")
+    @Builder.Default
+    private List<TemplateStep> steps = new ArrayList<>();
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
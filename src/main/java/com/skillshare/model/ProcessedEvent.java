@@ -0,0 +1,37 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Marks an outbox event as applied by one subscriber, so redelivering the
+ * event after another subscriber failed does not apply it twice.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "processed_events")
+@IdClass(ProcessedEvent.Key.class)
+public class ProcessedEvent {
+    @Id
+    private Long eventId;
+
+    @Id
+    @Column(length = 100)
+    private String subscriber;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long eventId;
+        private String subscriber;
+    }
+}
@@ -0,0 +1,37 @@
+package com.skillshare.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Bucket sizes for {@link ActivityRollup}. A bucket is the number of whole
+ * units since 1970-01-01T00:00, so ranges of buckets map to ranges of the
+ * primary key. Buckets count wall-clock time in the server's zone, the clock
+ * every stored timestamp and event time comes from, so no zone conversion
+ * happens here; across a daylight saving change one hour bucket can hold two
+ * real hours, or none. Do not reorder: the ordinal is stored.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    WEEK;
+
+    // 1970-01-01 was a Thursday; shifting by three days makes weeks start on Monday
+    private static final int WEEK_OFFSET_DAYS = 3;
+
+    public int bucketOf(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> Math.toIntExact(time.toLocalDate().toEpochDay() * 24 + time.getHour());
+            case DAY -> (int) time.toLocalDate().toEpochDay();
+            case WEEK -> (int) Math.floorDiv(time.toLocalDate().toEpochDay() + WEEK_OFFSET_DAYS, 7);
+        };
+    }
+
+    public LocalDateTime startOf(int bucket) {
+        return switch (this) {
+            case HOUR -> LocalDate.ofEpochDay(Math.floorDiv(bucket, 24)).atTime(Math.floorMod(bucket, 24), 0);
+            case DAY -> LocalDate.ofEpochDay(bucket).atStartOfDay();
+            case WEEK -> LocalDate.ofEpochDay(bucket * 7L - WEEK_OFFSET_DAYS).atStartOfDay();
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A learner's progress and optional overrides for one template step of a
+ * cloned plan. Rows are only written once the learner touches the step.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "learning_step_progress",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"learning_plan_id", "template_step_id"})
+)
+@EntityListeners(AuditingEntityListener.class)
+public class StepProgress {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "learning_plan_id", nullable = false)
+    private LearningPlan learningPlan;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_step_id", nullable = false)
+    private TemplateStep templateStep;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StepStatus status = StepStatus.NOT_STARTED;
+
+    private String titleOverride;
+
+    @Column(columnDefinition = "TEXT")
+    private String descriptionOverride;
+
+    private String resourceUrlOverride;
+
+    private LocalDateTime completedAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
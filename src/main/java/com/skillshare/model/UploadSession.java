@@ -0,0 +1,62 @@
+package com.skillshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * An in-progress chunked upload. Chunks are written straight into a
+ * preallocated file; this row tracks which of them have been verified.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "upload_sessions")
+@EntityListeners(AuditingEntityListener.class)
+public class UploadSession {
+    public static final int MAX_CHUNKS = 65536;
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String originalFileName;
+
+    @Column(nullable = false)
+    private long totalSize;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    @Column(nullable = false)
+    private int chunkCount;
+
+    @Column(length = MAX_CHUNKS / 8)
+    private byte[] receivedChunks;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    public BitSet receivedChunkSet() {
+        return receivedChunks != null ? BitSet.valueOf(receivedChunks) : new BitSet(chunkCount);
+    }
+
+    public boolean isComplete() {
+        return receivedChunkSet().cardinality() == chunkCount;
+    }
+}
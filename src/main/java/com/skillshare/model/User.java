@@ -10,6 +10,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -27,7 +32,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_profile_picture", columnList = "profile_picture"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @EntityListeners(AuditingEntityListener.class)
 public class User implements UserDetails {
     @Id
@@ -40,6 +47,7 @@ public class User implements UserDetails {
 
     @Email
     @NotBlank
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -64,7 +72,8 @@ public class User implements UserDetails {
     @JoinTable(
         name = "user_followers",
         joinColumns = @JoinColumn(name = "following_id"),
-        inverseJoinColumns = @JoinColumn(name = "follower_id")
+        inverseJoinColumns = @JoinColumn(name = "follower_id"),
+        indexes = @Index(name = "idx_user_followers_follower", columnList = "follower_id")
     )
     private List<User> followers = new ArrayList<>();
 
@@ -81,6 +90,15 @@ public class User implements UserDetails {
     private String provider; // "local", "google", "facebook"
     private String providerId;
 
+    // Deleted accounts can no longer authenticate; ContentDeletionService removes them later
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_USER"));
@@ -113,6 +131,6 @@ public class User implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return !deleted;
     }
 }
@@ -0,0 +1,19 @@
+package com.skillshare.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most JDBC statements a handler may execute for one request, including
+ * lazy loads during serialization. On a controller class it applies to every
+ * handler that does not declare its own. Checked by {@link QueryBudgetEnforcer}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+    int value();
+}
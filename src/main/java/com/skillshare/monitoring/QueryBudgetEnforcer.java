@@ -0,0 +1,101 @@
+package com.skillshare.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Compares each request's statement count with the {@link QueryBudget} of
+ * the handler that served it, and flags any single statement repeated
+ * {@code app.query-budget.repeat-threshold} times, the signature of an N+1
+ * loop over a lazy association.
+ * <p>
+ * {@code app.query-budget.mode} is OFF by default. LOG warns and counts
+ * violations in {@code jdbc.request.budget.exceeded}, which is cheap enough
+ * for production. STRICT throws {@link QueryBudgetExceededException}, so an
+ * integration test that hits an endpoint over budget fails; the Maven test
+ * run sets it.
+ */
+@Slf4j
+@Component
+public class QueryBudgetEnforcer {
+
+    public enum Mode {
+        OFF,
+        LOG,
+        STRICT
+    }
+
+    private final Mode mode;
+    private final int defaultBudget;
+    private final int repeatThreshold;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetEnforcer(
+            @Value("${app.query-budget.mode:OFF}") Mode mode,
+            @Value("${app.query-budget.default:0}") int defaultBudget,
+            @Value("${app.query-budget.repeat-threshold:10}") int repeatThreshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.mode = mode;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    void check(HttpServletRequest request, String route, long statements,
+               StatementCounter.RepeatedStatement repeated) {
+        int budget = budgetFor(request);
+        boolean overBudget = budget > 0 && statements > budget;
+        boolean repeating = repeated != null && repeated.executions() >= repeatThreshold;
+        if (!overBudget && !repeating) {
+            return;
+        }
+
+        StringBuilder violation = new StringBuilder()
+                .append(request.getMethod()).append(' ').append(route)
+                .append(" ran ").append(statements).append(" statements");
+        if (overBudget) {
+            violation.append(", over its budget of ").append(budget);
+        }
+        if (repeating) {
+            violation.append("; likely N+1, this one ran ").append(repeated.executions())
+                    .append(" times: ").append(repeated.sql());
+        }
+
+        Counter.builder("jdbc.request.budget.exceeded")
+                .description("Requests that ran more statements than their query budget or repeated one statement")
+                .tag("method", request.getMethod())
+                .tag("uri", route)
+                .tag("reason", overBudget ? "budget" : "repeated")
+                .register(meterRegistry)
+                .increment();
+        if (mode == Mode.STRICT) {
+            throw new QueryBudgetExceededException(violation.toString());
+        }
+        log.warn(violation.toString());
+    }
+
+    private int budgetFor(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
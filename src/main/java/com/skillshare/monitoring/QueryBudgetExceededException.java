@@ -0,0 +1,11 @@
+package com.skillshare.monitoring;
+
+/**
+ * Thrown in strict mode when a request runs more statements than its
+ * {@link QueryBudget} allows or repeats one statement like an N+1 loop.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,55 @@
+package com.skillshare.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Feeds every executed statement into the per-request {@link StatementCounter}
+ * and logs statements slower than {@code app.jdbc.slow-query-threshold}
+ * together with their bound parameters.
+ */
+@Slf4j
+@Component
+public class SqlMetricsListener implements QueryExecutionListener {
+
+    private final StatementCounter statementCounter;
+    private final Counter slowQueries;
+    private final long thresholdMillis;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    public SqlMetricsListener(
+            StatementCounter statementCounter,
+            MeterRegistry meterRegistry,
+            @Value("${app.jdbc.slow-query-threshold:PT0.5S}") Duration threshold
+    ) {
+        this.statementCounter = statementCounter;
+        this.thresholdMillis = threshold.toMillis();
+        this.slowQueries = Counter.builder("jdbc.slow.queries")
+                .description("Statements slower than the slow-query threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statementCounter.increment(queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery());
+        if (execInfo.getElapsedTime() >= thresholdMillis) {
+            slowQueries.increment();
+            log.warn("Slow query ({} ms): {}", execInfo.getElapsedTime(),
+                    logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.skillshare.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many JDBC statements each request issued, tagged with the
+ * matched route, as the {@code jdbc.request} histogram (in statements), and
+ * hands the count to {@link QueryBudgetEnforcer}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private final StatementCounter statementCounter;
+    private final QueryBudgetEnforcer queryBudgetEnforcer;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        statementCounter.begin(queryBudgetEnforcer.isEnabled());
+        long statements;
+        StatementCounter.RepeatedStatement repeated;
+        String route;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            repeated = statementCounter.mostRepeated();
+            statements = statementCounter.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            route = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("jdbc.request")
+                    .description("JDBC statements executed while handling a request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+        if (queryBudgetEnforcer.isEnabled()) {
+            queryBudgetEnforcer.check(request, route, statements, repeated);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.skillshare.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts JDBC statements executed on the current thread while a scope is
+ * open. {@link StatementCountFilter} opens one scope per HTTP request.
+ */
+@Component
+public class StatementCounter {
+
+    private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+
+    public void begin() {
+        begin(false);
+    }
+
+    /**
+     * Opens a scope. With {@code trackStatements} the scope also counts each
+     * distinct SQL string, so {@link #mostRepeated()} can point at the
+     * statement behind an N+1 pattern.
+     */
+    public void begin(boolean trackStatements) {
+        scope.set(new Scope(trackStatements ? new HashMap<>() : null));
+    }
+
+    /**
+     * Closes the current scope and returns the number of statements it saw.
+     */
+    public long end() {
+        Scope current = scope.get();
+        scope.remove();
+        return current != null ? current.count : 0;
+    }
+
+    public long current() {
+        Scope current = scope.get();
+        return current != null ? current.count : 0;
+    }
+
+    /**
+     * The statement executed most often in the current scope, or null if
+     * the scope does not track statements or saw none.
+     */
+    public RepeatedStatement mostRepeated() {
+        Scope current = scope.get();
+        if (current == null || current.mostRepeatedSql == null) {
+            return null;
+        }
+        return new RepeatedStatement(current.mostRepeatedSql, current.mostRepeatedCount);
+    }
+
+    void increment(String sql) {
+        Scope current = scope.get();
+        if (current == null) {
+            return;
+        }
+        current.count++;
+        if (current.executionsBySql != null && sql != null) {
+            int executions = ++current.executionsBySql.computeIfAbsent(sql, key -> new int[1])[0];
+            if (executions > current.mostRepeatedCount) {
+                current.mostRepeatedSql = sql;
+                current.mostRepeatedCount = executions;
+            }
+        }
+    }
+
+    public record RepeatedStatement(String sql, int executions) {
+    }
+
+    private static final class Scope {
+
+        private final Map<String, int[]> executionsBySql;
+        private long count;
+        private String mostRepeatedSql;
+        private int mostRepeatedCount;
+
+        Scope(Map<String, int[]> executionsBySql) {
+            this.executionsBySql = executionsBySql;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ActivityRollup;
+import com.skillshare.model.RollupGranularity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityRollupRepository
+        extends JpaRepository<ActivityRollup, ActivityRollup.Key>, ActivityRollupRepositoryCustom {
+
+    List<ActivityRollup> findByUserIdAndGranularityAndBucketBetweenOrderByBucket(
+            Long userId, RollupGranularity granularity, Integer fromBucket, Integer toBucket);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "activity_rollups"))
+    @Query(value = "DELETE FROM activity_rollups WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,10 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.RollupGranularity;
+
+public interface ActivityRollupRepositoryCustom {
+    void increment(Long userId, RollupGranularity granularity, int bucket,
+                   int posts, int likesReceived, int stepsCompleted);
+
+    int rebuild();
+}
@@ -0,0 +1,163 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ActivityRollup;
+import com.skillshare.model.RollupGranularity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rollup writes in plain SQL that any of the supported databases accepts:
+ * no MERGE or upsert syntax and no vendor date functions. Bucket numbers are
+ * always computed in Java by {@link RollupGranularity#bucketOf}, so the
+ * incremental path and the rebuild cannot disagree on them.
+ */
+class ActivityRollupRepositoryCustomImpl implements ActivityRollupRepositoryCustom {
+
+    private static final int REBUILD_USER_CHUNK = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Adds to the counters of one bucket, creating the row if needed.
+     * Counters never go below zero. Only the event bus thread calls this, so
+     * no other writer can create the row between the update and the insert.
+     */
+    @Override
+    public void increment(Long userId, RollupGranularity granularity, int bucket,
+                          int posts, int likesReceived, int stepsCompleted) {
+        int updated = entityManager.createNativeQuery("UPDATE activity_rollups SET "
+                        + "posts = CASE WHEN posts + :posts < 0 THEN 0 ELSE posts + :posts END, "
+                        + "likes_received = CASE WHEN likes_received + :likesReceived < 0 THEN 0 "
+                        + "ELSE likes_received + :likesReceived END, "
+                        + "steps_completed = CASE WHEN steps_completed + :stepsCompleted < 0 THEN 0 "
+                        + "ELSE steps_completed + :stepsCompleted END "
+                        + "WHERE user_id = :userId AND granularity = :granularity AND bucket = :bucket")
+                .setParameter("posts", posts)
+                .setParameter("likesReceived", likesReceived)
+                .setParameter("stepsCompleted", stepsCompleted)
+                .setParameter("userId", userId)
+                .setParameter("granularity", granularity.ordinal())
+                .setParameter("bucket", bucket)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("activity_rollups")
+                .executeUpdate();
+        if (updated > 0 || (posts <= 0 && likesReceived <= 0 && stepsCompleted <= 0)) {
+            return;
+        }
+        entityManager.createNativeQuery("INSERT INTO activity_rollups "
+                        + "(user_id, granularity, bucket, posts, likes_received, steps_completed) "
+                        + "VALUES (:userId, :granularity, :bucket, :posts, :likesReceived, :stepsCompleted)")
+                .setParameter("userId", userId)
+                .setParameter("granularity", granularity.ordinal())
+                .setParameter("bucket", bucket)
+                .setParameter("posts", Math.max(posts, 0))
+                .setParameter("likesReceived", Math.max(likesReceived, 0))
+                .setParameter("stepsCompleted", Math.max(stepsCompleted, 0))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("activity_rollups")
+                .executeUpdate();
+    }
+
+    /**
+     * Replaces every rollup with counts recomputed from the posts, likes and
+     * learning plan tables, archived posts and likes included. The database
+     * only groups activity by user, day and hour; the buckets are summed up
+     * here, a chunk of users at a time. Likes carry no timestamp of their
+     * own, so they are counted in the bucket of the post, the same as the
+     * incremental path does; steps count at their stored completion time.
+     * Returns the number of rows written.
+     */
+    @Override
+    public int rebuild() {
+        entityManager.createNativeQuery("DELETE FROM activity_rollups")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("activity_rollups")
+                .executeUpdate();
+
+        Number maxUserId = (Number) entityManager.createNativeQuery("SELECT MAX(id) FROM users").getSingleResult();
+        if (maxUserId == null) {
+            return 0;
+        }
+        int rows = 0;
+        for (long fromUserId = 0; fromUserId < maxUserId.longValue(); fromUserId += REBUILD_USER_CHUNK) {
+            Map<ActivityRollup.Key, ActivityRollup> rollups = new LinkedHashMap<>();
+            for (Object[] hour : findHourlyActivity(fromUserId, fromUserId + REBUILD_USER_CHUNK)) {
+                Long userId = (Long) hour[0];
+                LocalDateTime time = ((LocalDate) hour[1]).atTime((Integer) hour[2], 0);
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    int bucket = granularity.bucketOf(time);
+                    ActivityRollup rollup = rollups.computeIfAbsent(
+                            new ActivityRollup.Key(userId, granularity, bucket),
+                            key -> ActivityRollup.builder().userId(userId).granularity(granularity).bucket(bucket).build());
+                    rollup.setPosts(rollup.getPosts() + (Integer) hour[3]);
+                    rollup.setLikesReceived(rollup.getLikesReceived() + (Integer) hour[4]);
+                    rollup.setStepsCompleted(rollup.getStepsCompleted() + (Integer) hour[5]);
+                }
+            }
+            rollups.values().forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+            rows += rollups.size();
+        }
+        return rows;
+    }
+
+    /**
+     * Activity of the users with ids in {@code (fromUserId, toUserId]}, one
+     * row per user, day and hour: user id, day, hour, posts, likes received
+     * and steps completed.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findHourlyActivity(long fromUserId, long toUserId) {
+        String sql = "SELECT user_id, CAST(occurred_at AS DATE) AS activity_day, "
+                + "EXTRACT(HOUR FROM occurred_at) AS activity_hour, SUM(posts) AS posts, "
+                + "SUM(likes_received) AS likes_received, SUM(steps_completed) AS steps_completed FROM ("
+                + "SELECT p.user_id, p.created_at AS occurred_at, 1 AS posts, 0 AS likes_received, 0 AS steps_completed "
+                + "FROM posts p WHERE p.deleted = FALSE AND p.created_at IS NOT NULL AND " + inChunk("p") + " "
+                + "UNION ALL "
+                + "SELECT p.user_id, p.created_at, 0, 1, 0 "
+                + "FROM post_likes l JOIN posts p ON p.id = l.post_id "
+                + "WHERE p.deleted = FALSE AND p.created_at IS NOT NULL AND l.user_id <> p.user_id AND "
+                + inChunk("p") + " "
+                + "UNION ALL "
+                + "SELECT p.user_id, p.created_at, 1, 0, 0 "
+                + "FROM posts_archive p WHERE p.created_at IS NOT NULL AND " + inChunk("p") + " "
+                + "UNION ALL "
+                + "SELECT p.user_id, p.created_at, 0, 1, 0 "
+                + "FROM post_likes_archive l JOIN posts_archive p ON p.id = l.post_id "
+                + "WHERE p.created_at IS NOT NULL AND l.user_id <> p.user_id AND " + inChunk("p") + " "
+                + "UNION ALL "
+                + "SELECT lp.user_id, s.completed_at, 0, 0, 1 "
+                + "FROM learning_steps s JOIN learning_plans lp ON lp.id = s.learning_plan_id "
+                + "WHERE s.status = 'COMPLETED' AND s.completed_at IS NOT NULL AND " + inChunk("lp") + " "
+                + "UNION ALL "
+                + "SELECT lp.user_id, sp.completed_at, 0, 0, 1 "
+                + "FROM learning_step_progress sp JOIN learning_plans lp ON lp.id = sp.learning_plan_id "
+                + "WHERE sp.status = 'COMPLETED' AND sp.completed_at IS NOT NULL AND " + inChunk("lp")
+                + ") activity "
+                + "GROUP BY user_id, CAST(occurred_at AS DATE), EXTRACT(HOUR FROM occurred_at)";
+        return entityManager.createNativeQuery(sql)
+                .setParameter("fromUserId", fromUserId)
+                .setParameter("toUserId", toUserId)
+                .unwrap(NativeQuery.class)
+                .addScalar("user_id", Long.class)
+                .addScalar("activity_day", LocalDate.class)
+                .addScalar("activity_hour", Integer.class)
+                .addScalar("posts", Integer.class)
+                .addScalar("likes_received", Integer.class)
+                .addScalar("steps_completed", Integer.class)
+                .getResultList();
+    }
+
+    private static String inChunk(String alias) {
+        return alias + ".user_id > :fromUserId AND " + alias + ".user_id <= :toUserId";
+    }
+}
@@ -0,0 +1,132 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ArchivedPost;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedPostRepository extends JpaRepository<ArchivedPost, Long> {
+
+    // Moving posts out of the hot tables. Soft-deleted posts are left for the reaper.
+
+    @Query(value = "SELECT id FROM posts WHERE id > :afterId AND created_at < :cutoff AND deleted = false " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivableIds(long afterId, LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts_archive"))
+    @Query(value = "INSERT INTO posts_archive " +
+            "(id, user_id, content, type, comment_count, created_at, updated_at, archived_at) " +
+            "SELECT id, user_id, content, type, comment_count, created_at, updated_at, :archivedAt " +
+            "FROM posts WHERE id IN (:postIds)", nativeQuery = true)
+    void copyPosts(Collection<Long> postIds, LocalDateTime archivedAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments_archive"))
+    @Query(value = "INSERT INTO comments_archive (id, post_id, user_id, content, created_at, updated_at) " +
+            "SELECT id, post_id, user_id, content, created_at, updated_at FROM comments WHERE post_id IN (:postIds)",
+            nativeQuery = true)
+    void copyComments(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes_archive"))
+    @Query(value = "INSERT INTO post_likes_archive (post_id, user_id) " +
+            "SELECT post_id, user_id FROM post_likes WHERE post_id IN (:postIds)", nativeQuery = true)
+    void copyLikes(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_media_archive"))
+    @Query(value = "INSERT INTO post_media_archive (post_id, media_url) " +
+            "SELECT post_id, media_url FROM post_media WHERE post_id IN (:postIds)", nativeQuery = true)
+    void copyMedia(Collection<Long> postIds);
+
+    // Only rows that made it into the archive are deleted. Anything added since the copy keeps
+    // its foreign key to the post, so the final delete fails and the batch rolls back instead.
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments"))
+    @Query(value = "DELETE FROM comments WHERE id IN " +
+            "(SELECT id FROM comments_archive WHERE post_id IN (:postIds))", nativeQuery = true)
+    void deleteCopiedComments(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "DELETE FROM post_likes l WHERE l.post_id IN (:postIds) AND EXISTS " +
+            "(SELECT 1 FROM post_likes_archive a WHERE a.post_id = l.post_id AND a.user_id = l.user_id)",
+            nativeQuery = true)
+    void deleteCopiedLikes(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_media"))
+    @Query(value = "DELETE FROM post_media WHERE post_id IN (:postIds)", nativeQuery = true)
+    void deleteCopiedMedia(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+    @Query(value = "DELETE FROM posts WHERE id IN (:postIds)", nativeQuery = true)
+    void deleteCopiedPosts(Collection<Long> postIds);
+
+    // Purging a deleted account from the archive
+
+    @Query(value = "SELECT id FROM posts_archive WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByUserId(Long userId, int limit);
+
+    @Query(value = "SELECT media_url FROM post_media_archive WHERE post_id IN (:postIds)", nativeQuery = true)
+    List<String> findMediaUrls(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments_archive"))
+    @Query(value = "DELETE FROM comments_archive WHERE post_id IN (:postIds)", nativeQuery = true)
+    void purgeComments(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes_archive"))
+    @Query(value = "DELETE FROM post_likes_archive WHERE post_id IN (:postIds)", nativeQuery = true)
+    void purgeLikes(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_media_archive"))
+    @Query(value = "DELETE FROM post_media_archive WHERE post_id IN (:postIds)", nativeQuery = true)
+    void purgeMedia(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts_archive"))
+    @Query(value = "DELETE FROM posts_archive WHERE id IN (:postIds)", nativeQuery = true)
+    void purgePosts(Collection<Long> postIds);
+
+    @Query(value = "SELECT id, post_id FROM comments_archive WHERE user_id = :userId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findCommentIdsAndPostIdsByUserId(Long userId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments_archive"))
+    @Query(value = "DELETE FROM comments_archive WHERE id IN (:commentIds)", nativeQuery = true)
+    void purgeCommentsById(Collection<Long> commentIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts_archive"))
+    @Query(value = "UPDATE posts_archive SET comment_count = comment_count + :delta WHERE id = :postId",
+            nativeQuery = true)
+    void adjustCommentCount(Long postId, long delta);
+
+    @Query(value = "SELECT post_id FROM post_likes_archive WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    List<Long> findLikedPostIds(Long userId, int limit);
+
+    @Query("SELECT p.id, p.user.id, p.createdAt FROM ArchivedPost p WHERE p.id IN :postIds")
+    List<Object[]> findAuthorsAndCreationTimes(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes_archive"))
+    @Query(value = "DELETE FROM post_likes_archive WHERE user_id = :userId AND post_id IN (:postIds)",
+            nativeQuery = true)
+    void purgeLikesByUser(Long userId, Collection<Long> postIds);
+}
@@ -4,12 +4,19 @@ import com.skillshare.model.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId")
     Page<Comment> findByPostId(Long postId, Pageable pageable);
     
+    @Query("SELECT c FROM Comment c WHERE c.user.id = :userId")
     Page<Comment> findByUserId(Long userId, Pageable pageable);
     
     void deleteByPostId(Long postId);
@@ -17,4 +24,24 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     boolean existsByIdAndUserId(Long id, Long userId);
     
     boolean existsByIdAndPostUserId(Long id, Long userId);
+
+    Optional<Comment> findByIdAndPostId(Long id, Long postId);
+
+    /**
+     * Deletes one comment and returns the number of rows removed, which is 0
+     * when a concurrent request deleted it first.
+     */
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id = :id")
+    int deleteReturningCount(Long id);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user u WHERE c.post.id = :postId AND c.id < :cursor " +
+            "AND u.deleted = false ORDER BY c.id DESC")
+    List<Comment> findThreadPage(Long postId, Long cursor, Pageable pageable);
+
+    @Query(value = "SELECT id FROM comments WHERE post_id = :postId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByPostId(Long postId, int limit);
+
+    @Query(value = "SELECT id, post_id FROM comments WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findIdsAndPostIdsByUserId(Long userId, int limit);
 }
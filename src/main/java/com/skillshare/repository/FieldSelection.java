@@ -0,0 +1,50 @@
+package com.skillshare.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A validated {@code fields=} selector: the requested single-valued fields,
+ * always starting with {@code id}, and any requested collections. The
+ * sort is checked here too, so a bad request fails before any query runs.
+ */
+public record FieldSelection(SparseResource resource, List<String> columns, List<String> collections) {
+
+    public static FieldSelection parse(SparseResource resource, String fields) {
+        return parse(resource, fields, Sort.unsorted());
+    }
+
+    public static FieldSelection parse(SparseResource resource, String fields, Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!resource.isSortable(order.getProperty())) {
+                throw new InvalidFieldSelectionException("Cannot sort by '" + order.getProperty() + "'");
+            }
+        }
+
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                requested.add(field.trim());
+            }
+        }
+
+        List<String> columns = new ArrayList<>();
+        List<String> collections = new ArrayList<>();
+        for (String field : requested) {
+            if (resource.column(field) != null) {
+                columns.add(field);
+            } else if (resource.isCollection(field)) {
+                collections.add(field);
+            } else {
+                throw new InvalidFieldSelectionException(
+                        "Unknown field '" + field + "'; allowed fields are " + resource.allowedFields());
+            }
+        }
+        return new FieldSelection(resource, List.copyOf(columns), List.copyOf(collections));
+    }
+}
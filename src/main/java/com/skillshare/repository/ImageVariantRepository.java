@@ -0,0 +1,17 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+    List<ImageVariant> findBySourceHash(String sourceHash);
+
+    boolean existsBySourceHash(String sourceHash);
+
+    Optional<ImageVariant> findFirstBySourceHashAndWidthGreaterThanEqualOrderByWidthAsc(String sourceHash, int width);
+}
@@ -0,0 +1,7 @@
+package com.skillshare.repository;
+
+public class InvalidFieldSelectionException extends IllegalArgumentException {
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
@@ -1,19 +1,28 @@
 package com.skillshare.repository;
 
+import com.skillshare.dto.LearningPlanSummary;
 import com.skillshare.model.LearningPlan;
 import com.skillshare.model.PlanStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LearningPlanRepository extends JpaRepository<LearningPlan, Long> {
+    @Query("SELECT lp FROM LearningPlan lp WHERE lp.user.id = :userId")
     Page<LearningPlan> findByUserId(Long userId, Pageable pageable);
     
+    @Query("SELECT lp FROM LearningPlan lp WHERE lp.user.id = :userId AND lp.status = :status")
     List<LearningPlan> findByUserIdAndStatus(Long userId, PlanStatus status);
     
     @Query("SELECT lp FROM LearningPlan lp WHERE lp.title LIKE %:query% OR lp.description LIKE %:query%")
@@ -22,5 +31,42 @@ public interface LearningPlanRepository extends JpaRepository<LearningPlan, Long
     @Query("SELECT lp FROM LearningPlan lp WHERE lp.user.id IN (SELECT f.id FROM User u JOIN u.following f WHERE u.id = :userId)")
     Page<LearningPlan> findFollowingUsersLearningPlans(Long userId, Pageable pageable);
 
+    @Query("SELECT lp FROM LearningPlan lp WHERE lp.user.id = :userId ORDER BY lp.createdAt DESC")
     List<LearningPlan> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Query("SELECT DISTINCT lp FROM LearningPlan lp LEFT JOIN FETCH lp.steps WHERE lp IN :plans")
+    List<LearningPlan> fetchSteps(Collection<LearningPlan> plans);
+
+    // Cached, count included, until plans, steps or templates next change
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT new com.skillshare.dto.LearningPlanSummary(lp.id, lp.title, lp.description, lp.status, " +
+            "lp.targetCompletionDate, lp.createdAt, lp.updatedAt, " +
+            "(SELECT COUNT(s) FROM LearningStep s WHERE s.learningPlan = lp) + " +
+            "(SELECT COUNT(ts) FROM TemplateStep ts WHERE ts.template = lp.template), lp.user.id) FROM LearningPlan lp",
+            countQuery = "SELECT COUNT(lp) FROM LearningPlan lp")
+    Page<LearningPlanSummary> findSummaries(Pageable pageable);
+
+    @Query("SELECT new com.skillshare.dto.LearningPlanSummary(lp.id, lp.title, lp.description, lp.status, " +
+            "lp.targetCompletionDate, lp.createdAt, lp.updatedAt, " +
+            "(SELECT COUNT(s) FROM LearningStep s WHERE s.learningPlan = lp) + " +
+            "(SELECT COUNT(ts) FROM TemplateStep ts WHERE ts.template = lp.template), lp.user.id) " +
+            "FROM LearningPlan lp WHERE lp.id IN :ids")
+    List<LearningPlanSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE LearningPlan lp SET lp.deleted = true, lp.deletedAt = :deletedAt WHERE lp.user.id = :userId")
+    void markDeletedByUserId(Long userId, LocalDateTime deletedAt);
+
+    @Query(value = "SELECT id FROM learning_plans WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByUserIdIncludingDeleted(Long userId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "learning_steps"))
+    @Query(value = "DELETE FROM learning_steps WHERE learning_plan_id = :planId", nativeQuery = true)
+    void deleteSteps(Long planId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "learning_plans"))
+    @Query(value = "DELETE FROM learning_plans WHERE id = :planId", nativeQuery = true)
+    void deleteByIdIncludingDeleted(Long planId);
 }
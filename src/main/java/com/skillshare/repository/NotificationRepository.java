@@ -1,17 +1,27 @@
 package com.skillshare.repository;
 
 import com.skillshare.model.Notification;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    // Filter on the foreign key column; the derived form left-joins users and scans the table
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
     Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false")
     long countByUserIdAndReadFalse(Long userId);
     
     @Modifying
@@ -21,4 +31,36 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.user.id = :userId AND n.read = true")
     void deleteAllReadNotifications(Long userId);
+
+    @Query(value = "SELECT id FROM notifications WHERE link = :link ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByLink(String link, int limit);
+
+    @Query(value = "SELECT id FROM notifications WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByUserId(Long userId, int limit);
+
+    // Unread notifications stay hot however old they are, so the unread count never changes under the user
+
+    @Query(value = "SELECT id FROM notifications WHERE id > :afterId AND created_at < :cutoff AND read = true " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivableIds(long afterId, LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notifications_archive"))
+    @Query(value = "INSERT INTO notifications_archive (id, user_id, message, link, type, read, created_at) " +
+            "SELECT id, user_id, message, link, type, read, created_at FROM notifications WHERE id IN (:ids)",
+            nativeQuery = true)
+    void copyToArchive(Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM notifications_archive WHERE user_id = :userId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findArchivedIdsByUserId(Long userId, int limit);
+
+    @Query(value = "SELECT id FROM notifications_archive WHERE link = :link ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findArchivedIdsByLink(String link, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notifications_archive"))
+    @Query(value = "DELETE FROM notifications_archive WHERE id IN (:ids)", nativeQuery = true)
+    void purgeArchived(Collection<Long> ids);
 }
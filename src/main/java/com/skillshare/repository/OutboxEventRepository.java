@@ -0,0 +1,39 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.OutboxEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId AND e.createdAt < :cutoff ORDER BY e.id")
+    List<OutboxEvent> findCreatedBefore(long afterId, LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id = :id")
+    void incrementAttempts(Long id);
+
+    /**
+     * Copies an event the relay gives up on to the dead letters; the caller
+     * deletes it from the outbox in the same transaction.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_dead_letters"))
+    @Query(value = "INSERT INTO event_dead_letters (id, created_at, failed_at, type, payload, attempts, reason) " +
+            "SELECT id, created_at, :failedAt, type, payload, attempts, :reason FROM event_outbox WHERE id = :id",
+            nativeQuery = true)
+    void copyToDeadLetters(Long id, LocalDateTime failedAt, String reason);
+}
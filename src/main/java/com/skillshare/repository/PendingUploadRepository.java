@@ -0,0 +1,23 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.PendingUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PendingUploadRepository extends JpaRepository<PendingUpload, Long> {
+    List<PendingUpload> findByUserIdAndFileNameIn(Long userId, Collection<String> fileNames);
+
+    List<PendingUpload> findTop100ByCreatedAtBefore(LocalDateTime cutoff);
+
+    // Returns how many rows were removed, so a claim that lost a race can be detected
+    @Modifying
+    @Query("DELETE FROM PendingUpload p WHERE p.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,21 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.PlanTemplate;
+import com.skillshare.model.TemplateStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PlanTemplateRepository extends JpaRepository<PlanTemplate, Long> {
+    @Modifying
+    @Query("UPDATE PlanTemplate t SET t.sourcePlan = null WHERE t.sourcePlan.id = :planId")
+    void detachSourcePlan(Long planId);
+
+    @Query("SELECT ts FROM TemplateStep ts WHERE ts.template.id IN :templateIds ORDER BY ts.orderIndex")
+    List<TemplateStep> findStepsByTemplateIdIn(Collection<Long> templateIds);
+}
@@ -1,24 +1,34 @@
 package com.skillshare.repository;
 
+import com.skillshare.dto.PostSummary;
 import com.skillshare.model.Post;
 import com.skillshare.model.PostType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
     Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
-    Page<Post> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
-    
+
     @Query("SELECT p FROM Post p WHERE p.user.id IN (SELECT f.id FROM User u JOIN u.following f WHERE u.id = :userId)")
     Page<Post> findFollowingUsersPosts(Long userId, Pageable pageable);
     
     Page<Post> findByType(PostType type, Pageable pageable);
+
+    @Query("SELECT new com.skillshare.dto.PostSummary(p.id, p.user.id, p.type, p.content, p.commentCount, p.createdAt) " +
+            "FROM Post p WHERE p.id IN :ids")
+    List<PostSummary> findSummariesByIdIn(Collection<Long> ids);
     
     @Query("SELECT p FROM Post p WHERE p.content LIKE %:query%")
     List<Post> searchPosts(String query);
@@ -28,4 +38,71 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     
     @Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Post p JOIN p.likes l WHERE p.id = :postId AND l.id = :userId")
     boolean isPostLikedByUser(Long postId, Long userId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.deleted = true, p.deletedAt = :deletedAt WHERE p.id = :postId")
+    void markDeleted(Long postId, LocalDateTime deletedAt);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.deleted = true, p.deletedAt = :deletedAt WHERE p.user.id = :userId")
+    void markDeletedByUserId(Long userId, LocalDateTime deletedAt);
+
+    // Native queries below bypass the soft-delete restriction for the reaper
+
+    @Query(value = "SELECT id FROM posts WHERE deleted = true ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    @Query(value = "SELECT id FROM posts WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByUserIdIncludingDeleted(Long userId, int limit);
+
+    @Query(value = "SELECT user_id FROM post_likes WHERE post_id = :postId LIMIT :limit", nativeQuery = true)
+    List<Long> findLikerIds(Long postId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND user_id IN (:userIds)", nativeQuery = true)
+    int deleteLikes(Long postId, Collection<Long> userIds);
+
+    @Query(value = "SELECT COUNT(*) FROM post_likes l JOIN posts p ON p.id = l.post_id " +
+            "WHERE l.post_id = :postId AND l.user_id <> p.user_id", nativeQuery = true)
+    long countLikesFromOthers(Long postId);
+
+    /**
+     * Id, author id and creation time of each of the given posts that is not
+     * deleted.
+     */
+    @Query("SELECT p.id, p.user.id, p.createdAt FROM Post p WHERE p.id IN :postIds")
+    List<Object[]> findAuthorsAndCreationTimes(Collection<Long> postIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "INSERT INTO post_likes (post_id, user_id) VALUES (:postId, :userId)", nativeQuery = true)
+    void addLike(Long postId, Long userId);
+
+    @Query(value = "SELECT post_id FROM post_likes WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    List<Long> findLikedPostIds(Long userId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "DELETE FROM post_likes WHERE user_id = :userId AND post_id IN (:postIds)", nativeQuery = true)
+    void deleteLikesByUser(Long userId, Collection<Long> postIds);
+
+    @Query(value = "SELECT media_url FROM post_media WHERE post_id = :postId", nativeQuery = true)
+    List<String> findMediaUrls(Long postId);
+
+    // Whether the media is attached to a post anyone signed in can read, hot or archived
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM post_media pm JOIN posts p ON p.id = pm.post_id " +
+            "WHERE pm.media_url = :mediaUrl AND p.deleted = false) " +
+            "OR EXISTS (SELECT 1 FROM post_media_archive WHERE media_url = :mediaUrl)", nativeQuery = true)
+    boolean isPostMedia(String mediaUrl);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_media"))
+    @Query(value = "DELETE FROM post_media WHERE post_id = :postId", nativeQuery = true)
+    void deleteMedia(Long postId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+    @Query(value = "DELETE FROM posts WHERE id = :postId AND deleted = true", nativeQuery = true)
+    void deleteSoftDeleted(Long postId);
 }
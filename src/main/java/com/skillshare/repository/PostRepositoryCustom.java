@@ -0,0 +1,11 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface PostRepositoryCustom {
+    void adjustCommentCount(Long postId, long delta);
+
+    Page<Post> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+}
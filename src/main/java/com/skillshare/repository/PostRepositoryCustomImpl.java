@@ -0,0 +1,126 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ArchivedPost;
+import com.skillshare.model.Post;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Bumps the counter in place. A JPQL bulk update would evict every cached
+     * post on each new comment, so this declares only the comments table as
+     * affected and evicts the one post itself, again once the transaction ends
+     * in case a concurrent reader cached the old row in between.
+     */
+    @Override
+    public void adjustCommentCount(Long postId, long delta) {
+        entityManager.createNativeQuery("UPDATE posts SET comment_count = comment_count + :delta WHERE id = :postId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("comments")
+                .setParameter("delta", delta)
+                .setParameter("postId", postId)
+                .executeUpdate();
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Post.class, postId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Post.class, postId);
+                }
+            });
+        }
+    }
+
+    /**
+     * A user's posts, newest first, running on into the archive once the hot
+     * rows are exhausted. Everything archived is older than what is still hot,
+     * so a page filled by hot rows never reads the archive rows, and a count
+     * is only run when the page itself cannot tell where the rows end. The
+     * archive changes only when {@code ArchiveService} runs, so its count
+     * comes from the query cache. Archived posts come back as detached,
+     * read-only {@link Post} instances.
+     */
+    @Override
+    public Page<Post> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+
+        List<Post> content = new ArrayList<>(entityManager.createQuery(
+                        "SELECT p FROM Post p WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC",
+                        Post.class)
+                .setParameter("userId", userId)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList());
+        if (content.size() == limit) {
+            // The archive only contributes to the total
+            return new PageImpl<>(content, pageable, countHot(userId) + countArchived(userId));
+        }
+
+        // A short page holds the last hot rows, unless it started past them
+        long hotCount = content.isEmpty() && offset > 0 ? countHot(userId) : offset + content.size();
+        long archiveOffset = Math.max(0, offset - hotCount);
+        int archiveLimit = limit - content.size();
+        // The hot rows of a deleted account are hidden by the soft-delete flag; archived ones by the join
+        List<ArchivedPost> archived = entityManager.createQuery(
+                        "SELECT a FROM ArchivedPost a WHERE a.user.id = :userId AND a.user.deleted = false " +
+                                "ORDER BY a.createdAt DESC, a.id DESC", ArchivedPost.class)
+                .setParameter("userId", userId)
+                .setFirstResult((int) archiveOffset)
+                .setMaxResults(archiveLimit)
+                .getResultList();
+        archived.forEach(post -> content.add(toPost(post)));
+
+        long archivedCount = archived.size() < archiveLimit && (!archived.isEmpty() || archiveOffset == 0)
+                ? archiveOffset + archived.size()
+                : countArchived(userId);
+        return new PageImpl<>(content, pageable, hotCount + archivedCount);
+    }
+
+    private long countHot(Long userId) {
+        return entityManager.createQuery("SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId", Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+    }
+
+    private long countArchived(Long userId) {
+        return entityManager.createQuery(
+                        "SELECT COUNT(a) FROM ArchivedPost a WHERE a.user.id = :userId AND a.user.deleted = false",
+                        Long.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    private static Post toPost(ArchivedPost archived) {
+        return Post.builder()
+                .id(archived.getId())
+                .content(archived.getContent())
+                .type(archived.getType())
+                .user(archived.getUser())
+                .commentCount(archived.getCommentCount())
+                .mediaUrls(new ArrayList<>(archived.getMediaUrls()))
+                .likes(new ArrayList<>())
+                .comments(new ArrayList<>())
+                .createdAt(archived.getCreatedAt())
+                .updatedAt(archived.getUpdatedAt())
+                .build();
+    }
+}
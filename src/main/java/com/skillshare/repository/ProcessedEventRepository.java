@@ -0,0 +1,46 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.ProcessedEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, ProcessedEvent.Key> {
+
+    @Query("SELECT e.eventId FROM ProcessedEvent e WHERE e.subscriber = :subscriber AND e.eventId IN :eventIds")
+    List<Long> findEventIds(String subscriber, Collection<Long> eventIds);
+
+    /**
+     * Marks the given events as applied by the subscriber in one statement.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "processed_events"))
+    @Query(value = "INSERT INTO processed_events (event_id, subscriber) "
+            + "SELECT id, :subscriber FROM event_outbox WHERE id IN :eventIds",
+            nativeQuery = true)
+    void markProcessed(String subscriber, Collection<Long> eventIds);
+
+    /**
+     * Marks every event still in the outbox as applied by the subscriber, for
+     * when its state has been rebuilt from the tables those events changed.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "processed_events"))
+    @Query(value = "INSERT INTO processed_events (event_id, subscriber) "
+            + "SELECT o.id, :subscriber FROM event_outbox o WHERE NOT EXISTS ("
+            + "SELECT 1 FROM processed_events e WHERE e.event_id = o.id AND e.subscriber = :subscriber)",
+            nativeQuery = true)
+    int markAllPending(String subscriber);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent e WHERE e.eventId IN :eventIds")
+    void deleteByEventIdIn(Collection<Long> eventIds);
+}
@@ -0,0 +1,106 @@
+package com.skillshare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs listing queries that read only the columns named in a
+ * {@link FieldSelection} instead of loading whole entities, so a sparse
+ * request saves database work as well as response bytes. Rows come back as
+ * ordered maps keyed by field name.
+ */
+@Repository
+public class SparseFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param where JPQL condition on alias {@code e}, or null for all rows
+     * @param pageable its sort must already be validated by {@link FieldSelection#parse}
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findPage(FieldSelection selection, String where, Map<String, Object> parameters,
+                                              Pageable pageable) {
+        String from = " FROM " + selection.resource().entityName() + " e" + (where != null ? " WHERE " + where : "");
+        String select = selection.columns().stream()
+                .map(field -> selection.resource().column(field))
+                .collect(Collectors.joining(", ", "SELECT ", ""));
+
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                select + from + orderBy(selection.resource(), pageable.getSort()), Object[].class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] values : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                row.put(selection.columns().get(i), values[i]);
+            }
+            rows.add(row);
+        }
+        for (String collection : selection.collections()) {
+            loadCollection(selection.resource(), collection, rows);
+        }
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows);
+        }
+        TypedQuery<Long> countQuery = entityManager.createQuery("SELECT COUNT(e)" + from, Long.class);
+        parameters.forEach(countQuery::setParameter);
+        return new PageImpl<>(rows, pageable, countQuery.getSingleResult());
+    }
+
+    private static String orderBy(SparseResource resource, Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(resource.column(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return " ORDER BY " + String.join(", ", orders);
+    }
+
+    /**
+     * Fills a collection field for the whole page with one query.
+     */
+    private void loadCollection(SparseResource resource, String collection, List<Map<String, Object>> rows) {
+        Map<Object, List<Object>> values = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            List<Object> items = new ArrayList<>();
+            values.put(row.get("id"), items);
+            row.put(collection, items);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> items = entityManager.createQuery(
+                        "SELECT e.id, c FROM " + resource.entityName() + " e JOIN e." + collection + " c "
+                                + "WHERE e.id IN :ids",
+                        Object[].class)
+                .setParameter("ids", values.keySet())
+                .getResultList();
+        for (Object[] item : items) {
+            values.get(item[0]).add(item[1]);
+        }
+    }
+}
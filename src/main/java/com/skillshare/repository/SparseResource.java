@@ -0,0 +1,92 @@
+package com.skillshare.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields a client may request with {@code fields=} for each resource,
+ * and the JPQL expression each one is read from. Only what is listed here
+ * can be selected, so entity internals never leak through a selector. Users
+ * expose their public profile only.
+ */
+public enum SparseResource {
+    POST("Post", fields(
+            "id", "e.id",
+            "content", "e.content",
+            "type", "e.type",
+            "commentCount", "e.commentCount",
+            "authorId", "e.user.id",
+            "createdAt", "e.createdAt",
+            "updatedAt", "e.updatedAt"
+    ), Set.of("mediaUrls")),
+    USER("User", fields(
+            "id", "e.id",
+            "name", "e.name",
+            "bio", "e.bio",
+            "profilePicture", "e.profilePicture",
+            "createdAt", "e.createdAt"
+    ), Set.of()),
+    LEARNING_PLAN("LearningPlan", fields(
+            "id", "e.id",
+            "title", "e.title",
+            "description", "e.description",
+            "status", "e.status",
+            "ownerId", "e.user.id",
+            "templateId", "e.template.id",
+            "targetCompletionDate", "e.targetCompletionDate",
+            "createdAt", "e.createdAt",
+            "updatedAt", "e.updatedAt",
+            "stepCount", "(SELECT COUNT(s) FROM LearningStep s WHERE s.learningPlan = e) + "
+                    + "(SELECT COUNT(ts) FROM TemplateStep ts WHERE ts.template = e.template)"
+    ), Set.of());
+
+    private final String entityName;
+    private final Map<String, String> columns;
+    private final Set<String> collections;
+
+    SparseResource(String entityName, Map<String, String> columns, Set<String> collections) {
+        this.entityName = entityName;
+        this.columns = columns;
+        this.collections = collections;
+    }
+
+    String entityName() {
+        return entityName;
+    }
+
+    /**
+     * The JPQL expression for a single-valued field, or null if it is not one.
+     */
+    String column(String field) {
+        return columns.get(field);
+    }
+
+    boolean isCollection(String field) {
+        return collections.contains(field);
+    }
+
+    /**
+     * Whether results can be ordered by the field: plain attribute paths only.
+     */
+    boolean isSortable(String field) {
+        String column = columns.get(field);
+        return column != null && column.matches("e(\\.\\w+)+");
+    }
+
+    String allowedFields() {
+        List<String> fields = new ArrayList<>(columns.keySet());
+        fields.addAll(collections);
+        return String.join(", ", fields);
+    }
+
+    private static Map<String, String> fields(String... namesAndColumns) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndColumns.length; i += 2) {
+            fields.put(namesAndColumns[i], namesAndColumns[i + 1]);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,25 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.StepProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StepProgressRepository extends JpaRepository<StepProgress, Long> {
+    List<StepProgress> findByLearningPlanId(Long learningPlanId);
+
+    @Query("SELECT sp FROM StepProgress sp WHERE sp.learningPlan.id IN :planIds")
+    List<StepProgress> findByLearningPlanIdIn(Collection<Long> planIds);
+
+    Optional<StepProgress> findByLearningPlanIdAndTemplateStepId(Long learningPlanId, Long templateStepId);
+
+    @Modifying
+    @Query("DELETE FROM StepProgress sp WHERE sp.learningPlan.id = :planId")
+    void deleteByLearningPlanId(Long planId);
+}
@@ -1,27 +1,76 @@
 package com.skillshare.repository;
 
+import com.skillshare.dto.UserSummary;
 import com.skillshare.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByProviderAndProviderId(String provider, String providerId);
     
     boolean existsByEmail(String email);
+
+    boolean existsByProfilePictureAndDeletedFalse(String profilePicture);
     
-    @Query("SELECT u FROM User u WHERE u.name LIKE %:query% OR u.email LIKE %:query%")
+    // Cached until the users table next changes; the matched rows come from the entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT u FROM User u WHERE u.deleted = false AND (u.name LIKE %:query% OR u.email LIKE %:query%)")
     List<User> searchUsers(String query);
     
+    @Query("SELECT new com.skillshare.dto.UserSummary(u.id, u.name, u.profilePicture) FROM User u " +
+            "WHERE u.id IN :ids AND u.deleted = false")
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
     @Query("SELECT u FROM User u WHERE u.id IN (SELECT f.id FROM User user JOIN user.following f WHERE user.id = :userId)")
     List<User> findFollowingByUserId(Long userId);
     
     @Query("SELECT u FROM User u WHERE u.id IN (SELECT f.id FROM User user JOIN user.followers f WHERE user.id = :userId)")
     List<User> findFollowersByUserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.deleted = true, u.deletedAt = :deletedAt WHERE u.id = :userId")
+    void markDeleted(Long userId, LocalDateTime deletedAt);
+
+    @Query(value = "SELECT id FROM users WHERE deleted = true ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    @Query(value = "SELECT follower_id FROM user_followers WHERE following_id = :userId LIMIT :limit", nativeQuery = true)
+    List<Long> findFollowerIds(Long userId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_followers"))
+    @Query(value = "DELETE FROM user_followers WHERE following_id = :userId AND follower_id IN (:followerIds)", nativeQuery = true)
+    void deleteFollowers(Long userId, Collection<Long> followerIds);
+
+    @Query(value = "SELECT COUNT(*) > 0 FROM user_followers WHERE follower_id = :followerId AND following_id = :followingId", nativeQuery = true)
+    boolean isFollowing(Long followerId, Long followingId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_followers"))
+    @Query(value = "INSERT INTO user_followers (follower_id, following_id) VALUES (:followerId, :followingId)", nativeQuery = true)
+    void addFollowing(Long followerId, Long followingId);
+
+    @Query(value = "SELECT following_id FROM user_followers WHERE follower_id = :userId LIMIT :limit", nativeQuery = true)
+    List<Long> findFollowingIds(Long userId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_followers"))
+    @Query(value = "DELETE FROM user_followers WHERE follower_id = :userId AND following_id IN (:followingIds)", nativeQuery = true)
+    void deleteFollowing(Long userId, Collection<Long> followingIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "DELETE FROM users WHERE id = :userId AND deleted = true", nativeQuery = true)
+    void deleteSoftDeleted(Long userId);
 }
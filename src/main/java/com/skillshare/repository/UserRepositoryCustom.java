@@ -0,0 +1,9 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,50 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate primaryTransaction;
+
+    UserRepositoryCustomImpl(PlatformTransactionManager transactionManager) {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        // Read-write, so a routed data source sends it to the primary
+        primaryTransaction = new TransactionTemplate(transactionManager);
+        primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resolves the user through the natural-id cache, so repeated lookups by
+     * email during authentication are served from the second-level cache.
+     * A miss is retried on the primary: an account registered a moment ago
+     * may not have reached the replica yet, and nobody is signed in to make
+     * that request sticky.
+     */
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Optional<User> user = readTransaction.execute(status -> loadByEmail(email));
+        if (user.isEmpty()) {
+            user = primaryTransaction.execute(status -> loadByEmail(email));
+        }
+        return user;
+    }
+
+    private Optional<User> loadByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
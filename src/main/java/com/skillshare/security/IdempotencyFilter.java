@@ -0,0 +1,324 @@
+package com.skillshare.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the stored response when a create, like or follow request is
+ * retried with the same {@code Idempotency-Key} header. Keys are scoped to
+ * the authenticated user and remembered for a limited time. A duplicate that
+ * arrives while the first request is still running waits for its result
+ * instead of executing again.
+ * <p>
+ * Runs ahead of {@link RateLimitFilter}, so a retry that is answered from the
+ * store spends no rate-limit token and skips the user lookup. Like the rate
+ * limiter, it takes the user from the signed token; a response is only stored
+ * once {@link JwtAuthenticationFilter} has authenticated that same user.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final RequestMatcher IDEMPOTENT_REQUESTS = new OrRequestMatcher(
+            new AntPathRequestMatcher("/posts", "POST"),
+            new AntPathRequestMatcher("/learning-plans", "POST"),
+            new AntPathRequestMatcher("/posts/*/like", "POST"),
+            new AntPathRequestMatcher("/users/*/follow", "POST")
+    );
+
+    private final JwtService jwtService;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Duration waitTimeout;
+
+    public IdempotencyFilter(
+            JwtService jwtService,
+            @Value("${app.idempotency.ttl:PT1H}") Duration ttl,
+            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${app.idempotency.wait-timeout:PT30S}") Duration waitTimeout
+    ) {
+        this.jwtService = jwtService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getHeader(HEADER) == null || !IDEMPOTENT_REQUESTS.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        String idempotencyKey = request.getHeader(HEADER);
+        if (authHeader == null || !authHeader.startsWith("Bearer ") || idempotencyKey.isBlank()
+                || idempotencyKey.length() > 255) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String userEmail;
+        try {
+            userEmail = jwtService.extractUsername(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (userEmail == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        BufferedRequest bufferedRequest = new BufferedRequest(request);
+        String key = userEmail + ":" + idempotencyKey;
+        String fingerprint = fingerprint(bufferedRequest);
+
+        while (true) {
+            Entry entry = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                execute(key, userEmail, entry, bufferedRequest, response, filterChain);
+                return;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+                response.getWriter().write("Idempotency key was already used for a different request");
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.response().get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                response.setStatus(HttpStatus.CONFLICT.value());
+                response.getWriter().write("A request with this idempotency key is still being processed");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the original request", e);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                stored.writeTo(response);
+                return;
+            }
+            // The first attempt ended without a stored result, so this one runs instead
+        }
+    }
+
+    /**
+     * Drops stored responses older than the TTL. Requests still in flight are
+     * never dropped.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-interval:PT1M}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private void execute(String key, String userEmail, Entry entry, BufferedRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (entries.size() > maxEntries) {
+            evictExpired();
+        }
+        if (entries.size() > maxEntries) {
+            // Full of live keys; serve the request without a replay guarantee rather than reject it
+            log.warn("Idempotency store is full ({} entries); not recording key", entries.size());
+            entries.remove(key, entry);
+            entry.response().complete(null);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            int status = responseWrapper.getStatus();
+            // Server errors and rate limiting are transient, so a retry should really run again.
+            // Nothing is stored for a token the user lookup rejected, e.g. of a deleted account.
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value() && isAuthenticatedAs(userEmail)) {
+                stored = new StoredResponse(status, responseWrapper.getContentType(),
+                        responseWrapper.getContentAsByteArray());
+            }
+        } finally {
+            if (stored != null) {
+                entry.complete(stored, System.nanoTime() + ttlNanos);
+            } else {
+                entries.remove(key, entry);
+                entry.response().complete(null);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isAuthenticatedAs(String userEmail) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && userEmail.equals(authentication.getName());
+    }
+
+    private static String fingerprint(BufferedRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString())
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body) {
+
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private volatile long expiresAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        String fingerprint() {
+            return fingerprint;
+        }
+
+        CompletableFuture<StoredResponse> response() {
+            return response;
+        }
+
+        void complete(StoredResponse stored, long expiresAt) {
+            this.expiresAt = expiresAt;
+            response.complete(stored);
+        }
+
+        boolean isExpired(long now) {
+            return response.isDone() && expiresAt - now < 0;
+        }
+    }
+
+    /**
+     * Reads the body up front so it can be fingerprinted and still be read
+     * again by the controller.
+     */
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        byte[] body() {
+            return body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory, so it is ready to be read straight away
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
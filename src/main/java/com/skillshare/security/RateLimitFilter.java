@@ -0,0 +1,171 @@
+package com.skillshare.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token buckets for the write endpoints that fan out into several
+ * queries and a notification. Runs ahead of {@link JwtAuthenticationFilter},
+ * so rejected requests never reach the user lookup. Requests without a valid
+ * token pass through untouched and are turned away by the security rules.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimitFilter(
+            JwtService jwtService,
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.likes.capacity:30}") int likeCapacity,
+            @Value("${app.rate-limit.likes.period:PT1M}") Duration likePeriod,
+            @Value("${app.rate-limit.follows.capacity:20}") int followCapacity,
+            @Value("${app.rate-limit.follows.period:PT1M}") Duration followPeriod,
+            @Value("${app.rate-limit.posts.capacity:10}") int postCapacity,
+            @Value("${app.rate-limit.posts.period:PT1M}") Duration postPeriod
+    ) {
+        this(jwtService, enabled, likeCapacity, likePeriod, followCapacity, followPeriod, postCapacity, postPeriod,
+                System::nanoTime);
+    }
+
+    /**
+     * Takes the source of {@link System#nanoTime()}-style readings, so tests can move time forward by hand.
+     */
+    RateLimitFilter(JwtService jwtService, boolean enabled, int likeCapacity, Duration likePeriod,
+                    int followCapacity, Duration followPeriod, int postCapacity, Duration postPeriod,
+                    LongSupplier nanoClock) {
+        this.jwtService = jwtService;
+        this.nanoClock = nanoClock;
+        this.enabled = enabled;
+        this.rules = List.of(
+                new Rule("like", new AntPathRequestMatcher("/posts/*/like", "POST"), likeCapacity, likePeriod),
+                new Rule("follow", new AntPathRequestMatcher("/users/*/follow", "POST"), followCapacity, followPeriod),
+                new Rule("post", new AntPathRequestMatcher("/posts", "POST"), postCapacity, postPeriod)
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Rule rule = match(request);
+        String authHeader = request.getHeader("Authorization");
+        if (rule == null || authHeader == null || !authHeader.startsWith("Bearer ")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String userEmail;
+        try {
+            userEmail = jwtService.extractUsername(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+        long waitNanos = buckets.computeIfAbsent(rule.name() + ":" + userEmail, key -> new Bucket(now))
+                .tryAcquire(rule, now);
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+            response.getWriter().write("Too many requests");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Drops buckets that have refilled completely. A returning user simply
+     * starts again with a full bucket.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Rule match(HttpServletRequest request) {
+        for (Rule rule : rules) {
+            if (rule.matcher().matches(request)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private record Rule(String name, AntPathRequestMatcher matcher, long periodNanos, long intervalNanos) {
+
+        Rule(String name, AntPathRequestMatcher matcher, int capacity, Duration period) {
+            this(name, matcher, period.toNanos(), period.toNanos() / capacity);
+        }
+    }
+
+    /**
+     * Token bucket kept as a single theoretical arrival time (GCRA): each
+     * request pushes it forward by one refill interval, and a request is
+     * allowed while it stays within one period of now. Updated with a CAS
+     * loop, so concurrent requests for the same user never block.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong arrival;
+
+        Bucket(long now) {
+            this.arrival = new AtomicLong(now);
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise how long to wait for one.
+         */
+        long tryAcquire(Rule rule, long now) {
+            while (true) {
+                long current = arrival.get();
+                long next = Math.max(current, now) + rule.intervalNanos();
+                long excess = next - now - rule.periodNanos();
+                if (excess > 0) {
+                    return excess;
+                }
+                if (arrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return arrival.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.skillshare.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the activity rollups from existing data when the application is
+ * started with {@code --backfill-rollups}, e.g. after the rollup table is
+ * first created or after the bucketing rules change. Runs in the first
+ * lifecycle phase, before the event bus starts delivering and before the web
+ * server accepts requests.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityRollupBackfill implements SmartLifecycle {
+
+    public static final String OPTION = "backfill-rollups";
+
+    private final ActivityRollupService activityRollupService;
+    private final ApplicationArguments applicationArguments;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (applicationArguments.containsOption(OPTION)) {
+            activityRollupService.rebuildAll();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,79 @@
+package com.skillshare.service;
+
+import com.skillshare.dto.ActivityBucket;
+import com.skillshare.dto.ActivityReport;
+import com.skillshare.model.ActivityRollup;
+import com.skillshare.model.RollupGranularity;
+import com.skillshare.repository.ActivityRollupRepository;
+import com.skillshare.repository.ProcessedEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityRollupService {
+
+    private final ActivityRollupRepository activityRollupRepository;
+    private final ProcessedEventRepository processedEventRepository;
+
+    /**
+     * Builds the series for buckets {@code fromBucket} to {@code toBucket}
+     * from one primary-key range read, filling in empty buckets.
+     */
+    @Transactional(readOnly = true)
+    public ActivityReport getActivity(Long userId, RollupGranularity granularity, int fromBucket, int toBucket) {
+        Map<Integer, ActivityRollup> rollups = activityRollupRepository
+                .findByUserIdAndGranularityAndBucketBetweenOrderByBucket(userId, granularity, fromBucket, toBucket)
+                .stream()
+                .collect(Collectors.toMap(ActivityRollup::getBucket, Function.identity()));
+
+        int currentBucket = granularity.bucketOf(LocalDateTime.now());
+        List<ActivityBucket> buckets = new ArrayList<>(toBucket - fromBucket + 1);
+        ActivityReport report = ActivityReport.builder().granularity(granularity).buckets(buckets).build();
+        int streak = 0;
+        for (int bucket = fromBucket; bucket <= toBucket; bucket++) {
+            ActivityRollup rollup = rollups.get(bucket);
+            int posts = rollup != null ? rollup.getPosts() : 0;
+            int likesReceived = rollup != null ? rollup.getLikesReceived() : 0;
+            int stepsCompleted = rollup != null ? rollup.getStepsCompleted() : 0;
+            buckets.add(new ActivityBucket(granularity.startOf(bucket), posts, likesReceived, stepsCompleted));
+            report.setTotalPosts(report.getTotalPosts() + posts);
+            report.setTotalLikesReceived(report.getTotalLikesReceived() + likesReceived);
+            report.setTotalStepsCompleted(report.getTotalStepsCompleted() + stepsCompleted);
+
+            if (posts > 0 || stepsCompleted > 0) {
+                streak++;
+                report.setLongestStreak(Math.max(report.getLongestStreak(), streak));
+            } else if (bucket < currentBucket) {
+                // Buckets still in progress or in the future do not break a streak yet
+                streak = 0;
+            }
+        }
+        report.setCurrentStreak(streak);
+        return report;
+    }
+
+    /**
+     * Recomputes every rollup from the source tables. Events still waiting in
+     * the outbox changed those tables already, so they are marked as applied
+     * for the rollup subscriber. Events delivered while this runs would be
+     * counted twice, which is why {@link ActivityRollupBackfill} runs it
+     * before the event bus and the web server start.
+     */
+    @Transactional
+    public void rebuildAll() {
+        int rows = activityRollupRepository.rebuild();
+        int pending = processedEventRepository.markAllPending(ActivityRollupSubscriber.class.getSimpleName());
+        log.info("Rebuilt {} activity rollups; {} queued events were already included", rows, pending);
+    }
+}
@@ -0,0 +1,101 @@
+package com.skillshare.service;
+
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventSubscriber;
+import com.skillshare.model.RollupGranularity;
+import com.skillshare.repository.ActivityRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the activity rollups current. A batch is first folded into one delta
+ * per user and bucket, so a burst of likes on one author's post costs a
+ * single write per granularity rather than one per like. Likes, unlikes and
+ * deleted posts all count in the bucket of the post's creation time, and
+ * steps in the bucket of their stored completion time, which is also where
+ * {@link ActivityRollupService#rebuildAll} puts them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityRollupSubscriber implements DomainEventSubscriber {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::userId)
+            .thenComparing(Key::granularity)
+            .thenComparingInt(Key::bucket);
+
+    private static final int POSTS = 0;
+    private static final int LIKES_RECEIVED = 1;
+    private static final int STEPS_COMPLETED = 2;
+
+    private final ActivityRollupRepository activityRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        // Sorted so concurrent writers always touch rows in the same order
+        Map<Key, int[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.PostCreated created -> add(deltas, created.authorId(), created.occurredAt(), POSTS, 1);
+                case DomainEvent.PostLiked liked when !liked.postAuthorId().equals(liked.likerId()) ->
+                        add(deltas, liked.postAuthorId(), postTime(liked.postCreatedAt(), liked.occurredAt()),
+                                LIKES_RECEIVED, 1);
+                case DomainEvent.PostUnliked unliked when !unliked.postAuthorId().equals(unliked.likerId()) ->
+                        add(deltas, unliked.postAuthorId(), postTime(unliked.postCreatedAt(), unliked.occurredAt()),
+                                LIKES_RECEIVED, -1);
+                case DomainEvent.PostDeleted deleted -> {
+                    LocalDateTime time = postTime(deleted.postCreatedAt(), deleted.occurredAt());
+                    add(deltas, deleted.authorId(), time, POSTS, -1);
+                    add(deltas, deleted.authorId(), time, LIKES_RECEIVED, (int) -deleted.likesReceived());
+                }
+                case DomainEvent.StepCompleted completed ->
+                        add(deltas, completed.ownerId(), completed.occurredAt(), STEPS_COMPLETED, 1);
+                // Without a completion time the step was never counted
+                case DomainEvent.StepUncompleted reopened when reopened.completedAt() != null ->
+                        add(deltas, reopened.ownerId(), reopened.completedAt(), STEPS_COMPLETED, -1);
+                case DomainEvent.LearningPlanDeleted deleted -> deleted.stepsCompletedAt().forEach(completedAt ->
+                        add(deltas, deleted.ownerId(), completedAt, STEPS_COMPLETED, -1));
+                default -> {
+                }
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> deltas.forEach((key, delta) -> {
+            // A like and an unlike in the same batch cancel out
+            if (delta[POSTS] != 0 || delta[LIKES_RECEIVED] != 0 || delta[STEPS_COMPLETED] != 0) {
+                activityRollupRepository.increment(key.userId(), key.granularity(), key.bucket(),
+                        delta[POSTS], delta[LIKES_RECEIVED], delta[STEPS_COMPLETED]);
+            }
+        }));
+    }
+
+    private static void add(Map<Key, int[]> deltas, Long userId, LocalDateTime occurredAt, int counter, int amount) {
+        // Events written to the outbox before they carried a timestamp
+        LocalDateTime time = occurredAt != null ? occurredAt : LocalDateTime.now();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            deltas.computeIfAbsent(new Key(userId, granularity, granularity.bucketOf(time)), key -> new int[3])[counter]
+                    += amount;
+        }
+    }
+
+    /**
+     * The post's creation time, or the event time for events queued before
+     * they carried it.
+     */
+    private static LocalDateTime postTime(LocalDateTime postCreatedAt, LocalDateTime occurredAt) {
+        return postCreatedAt != null ? postCreatedAt : occurredAt;
+    }
+
+    private record Key(Long userId, RollupGranularity granularity, int bucket) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.skillshare.service;
+
+import com.skillshare.model.ArchiveCheckpoint;
+import com.skillshare.repository.ArchiveCheckpointRepository;
+import com.skillshare.repository.ArchivedPostRepository;
+import com.skillshare.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves old posts, together with their comments, likes and media, and old
+ * read notifications into the {@code *_archive} tables, so the hot tables
+ * and their indexes only hold recent rows. Each run walks the candidates in
+ * id order, one short transaction per batch, and records the last id it
+ * committed in {@link ArchiveCheckpoint}; a run that is interrupted resumes
+ * from there with the same cutoff.
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    static final String POSTS = "posts";
+    static final String NOTIFICATIONS = "notifications";
+
+    private final ArchivedPostRepository archivedPostRepository;
+    private final NotificationRepository notificationRepository;
+    private final ArchiveCheckpointRepository archiveCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration postAge;
+    private final Duration notificationAge;
+    private final int batchSize;
+
+    public ArchiveService(
+            ArchivedPostRepository archivedPostRepository,
+            NotificationRepository notificationRepository,
+            ArchiveCheckpointRepository archiveCheckpointRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.post-age:P365D}") Duration postAge,
+            @Value("${app.archive.notification-age:P90D}") Duration notificationAge,
+            @Value("${app.archive.batch-size:500}") int batchSize
+    ) {
+        this.archivedPostRepository = archivedPostRepository;
+        this.notificationRepository = notificationRepository;
+        this.archiveCheckpointRepository = archiveCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.postAge = postAge;
+        this.notificationAge = notificationAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.archive.interval:PT1H}",
+            initialDelayString = "${app.archive.initial-delay:PT5M}"
+    )
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        run(POSTS, postAge, new Step() {
+            @Override
+            public List<Long> findIds(long afterId, LocalDateTime cutoff, int limit) {
+                return archivedPostRepository.findArchivableIds(afterId, cutoff, limit);
+            }
+
+            @Override
+            public void move(List<Long> postIds) {
+                archivedPostRepository.copyPosts(postIds, LocalDateTime.now());
+                archivedPostRepository.copyComments(postIds);
+                archivedPostRepository.copyLikes(postIds);
+                archivedPostRepository.copyMedia(postIds);
+                archivedPostRepository.deleteCopiedComments(postIds);
+                archivedPostRepository.deleteCopiedLikes(postIds);
+                archivedPostRepository.deleteCopiedMedia(postIds);
+                archivedPostRepository.deleteCopiedPosts(postIds);
+            }
+        });
+        run(NOTIFICATIONS, notificationAge, new Step() {
+            @Override
+            public List<Long> findIds(long afterId, LocalDateTime cutoff, int limit) {
+                return notificationRepository.findArchivableIds(afterId, cutoff, limit);
+            }
+
+            @Override
+            public void move(List<Long> ids) {
+                notificationRepository.copyToArchive(ids);
+                notificationRepository.deleteAllByIdInBatch(ids);
+            }
+        });
+    }
+
+    private void run(String name, Duration age, Step step) {
+        try {
+            ArchiveCheckpoint checkpoint = transactionTemplate.execute(status -> resumeOrStart(name, age));
+            long before = checkpoint.getRowsArchived();
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> archiveBatch(checkpoint, step)))) {
+                // Keep going until nothing older than the cutoff is left
+            }
+            if (checkpoint.getRowsArchived() > before) {
+                log.info("Archived {} {} rows created before {}", checkpoint.getRowsArchived() - before, name,
+                        checkpoint.getCutoff());
+            }
+        } catch (RuntimeException e) {
+            // Typically a batch that picked up a new comment or like mid-copy; it is retried next run
+            log.warn("Archive run for {} stopped; it resumes from its checkpoint next time", name, e);
+        }
+    }
+
+    private ArchiveCheckpoint resumeOrStart(String name, Duration age) {
+        ArchiveCheckpoint checkpoint = archiveCheckpointRepository.findById(name).orElse(null);
+        if (checkpoint != null && checkpoint.getCompletedAt() == null) {
+            return checkpoint;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return archiveCheckpointRepository.save(ArchiveCheckpoint.builder()
+                .name(name)
+                .cutoff(now.minus(age))
+                .lastId(0L)
+                .startedAt(now)
+                .build());
+    }
+
+    /**
+     * Moves one batch and advances the checkpoint in the same transaction.
+     * Returns false once the run is complete.
+     */
+    private boolean archiveBatch(ArchiveCheckpoint checkpoint, Step step) {
+        List<Long> ids = step.findIds(checkpoint.getLastId(), checkpoint.getCutoff(), batchSize);
+        if (ids.isEmpty()) {
+            checkpoint.setCompletedAt(LocalDateTime.now());
+            archiveCheckpointRepository.save(checkpoint);
+            return false;
+        }
+        step.move(ids);
+        checkpoint.setLastId(ids.get(ids.size() - 1));
+        checkpoint.setRowsArchived(checkpoint.getRowsArchived() + ids.size());
+        archiveCheckpointRepository.save(checkpoint);
+        Counter.builder("archive.rows")
+                .description("Rows moved from the hot tables to the archive")
+                .tag("table", checkpoint.getName())
+                .register(meterRegistry)
+                .increment(ids.size());
+        return true;
+    }
+
+    private interface Step {
+
+        List<Long> findIds(long afterId, LocalDateTime cutoff, int limit);
+
+        void move(List<Long> ids);
+    }
+}
@@ -0,0 +1,210 @@
+package com.skillshare.service;
+
+import com.skillshare.model.UploadSession;
+import com.skillshare.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: a client initiates a session, PUTs fixed-size chunks at
+ * their offsets in any order, and completes it. Each chunk is verified against
+ * its SHA-256 checksum and then copied to its offset in a file that was
+ * preallocated to the final size.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final PendingUploadService pendingUploadService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${media.upload-max-size:2147483648}")
+    private long maxUploadSize;
+
+    @Value("${media.upload-default-chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${media.upload-session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    public UploadSession initiate(Long userId, String fileName, long totalSize, Integer requestedChunkSize) throws IOException {
+        int chunkSize = requestedChunkSize != null ? requestedChunkSize : defaultChunkSize;
+        if (totalSize <= 0 || totalSize > maxUploadSize) {
+            throw new IllegalArgumentException("Upload size must be between 1 and " + maxUploadSize + " bytes");
+        }
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE + " bytes");
+        }
+        long chunkCount = (totalSize + chunkSize - 1) / chunkSize;
+        if (chunkCount > UploadSession.MAX_CHUNKS) {
+            throw new IllegalArgumentException("Too many chunks; use a larger chunk size");
+        }
+
+        String id = UUID.randomUUID().toString();
+        // Preallocate so chunks can land at their offsets in any order
+        try (RandomAccessFile file = new RandomAccessFile(fileStorageService.partialUploadPath(id).toFile(), "rw")) {
+            file.setLength(totalSize);
+        }
+
+        return uploadSessionRepository.save(UploadSession.builder()
+                .id(id)
+                .userId(userId)
+                .originalFileName(fileName)
+                .totalSize(totalSize)
+                .chunkSize(chunkSize)
+                .chunkCount((int) chunkCount)
+                .expiresAt(LocalDateTime.now().plus(sessionTtl))
+                .build());
+    }
+
+    public Optional<UploadSession> findSession(String id, Long userId) {
+        return uploadSessionRepository.findById(id)
+                .filter(session -> session.getUserId().equals(userId));
+    }
+
+    /**
+     * Writes one chunk at {@code offset}. The chunk is staged in a temp file
+     * and only copied into the upload once its length and checksum match, so
+     * a bad re-send cannot overwrite a chunk that was already received.
+     */
+    public UploadSession writeChunk(UploadSession session, long offset, InputStream body, String checksum) throws IOException {
+        if (checksum == null || checksum.isBlank()) {
+            throw new IllegalArgumentException("Missing chunk checksum");
+        }
+        if (offset < 0 || offset >= session.getTotalSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("Offset must be a multiple of the chunk size within the upload");
+        }
+        int chunkIndex = (int) (offset / session.getChunkSize());
+        long expectedLength = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+
+        Path staged = fileStorageService.createTempFile();
+        try {
+            MessageDigest digest = sha256();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (written + read > expectedLength) {
+                        throw new IllegalArgumentException("Chunk is larger than expected");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                    while (source.hasRemaining()) {
+                        written += channel.write(source);
+                    }
+                }
+            }
+
+            if (written != expectedLength) {
+                throw new IllegalArgumentException("Expected " + expectedLength + " bytes but received " + written);
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(checksum.trim())) {
+                throw new IllegalArgumentException("Chunk checksum mismatch");
+            }
+
+            try (FileChannel source = FileChannel.open(staged, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(fileStorageService.partialUploadPath(session.getId()), StandardOpenOption.WRITE)) {
+                long copied = 0;
+                while (copied < written) {
+                    copied += source.transferTo(copied, written - copied, target.position(offset + copied));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+
+        return transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(session.getId())
+                    .orElseThrow(() -> new IllegalStateException("Upload session expired"));
+            BitSet received = locked.receivedChunkSet();
+            received.set(chunkIndex);
+            locked.setReceivedChunks(received.toByteArray());
+            locked.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+            return uploadSessionRepository.save(locked);
+        });
+    }
+
+    /**
+     * Hands the assembled file to content-addressed storage and closes the
+     * session, leaving the upload pending until a post claims it. Returns the
+     * stored file name.
+     */
+    public String complete(UploadSession session) {
+        return transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(session.getId())
+                    .orElseThrow(() -> new IllegalStateException("Upload session expired"));
+            if (!locked.isComplete()) {
+                throw new IllegalStateException("Upload is missing chunks");
+            }
+            try {
+                String fileName = fileStorageService.storeLocalFile(
+                        fileStorageService.partialUploadPath(locked.getId()),
+                        FileStorageService.extensionOf(locked.getOriginalFileName()));
+                uploadSessionRepository.delete(locked);
+                pendingUploadService.record(locked.getUserId(), fileName);
+                return fileName;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void abort(UploadSession session) throws IOException {
+        uploadSessionRepository.deleteById(session.getId());
+        Files.deleteIfExists(fileStorageService.partialUploadPath(session.getId()));
+    }
+
+    @Scheduled(fixedDelayString = "${media.upload-sweep-interval:PT15M}")
+    public void sweepExpiredSessions() {
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findTop100ByExpiresAtBefore(LocalDateTime.now());
+            for (UploadSession session : expired) {
+                try {
+                    abort(session);
+                } catch (IOException e) {
+                    log.warn("Could not remove abandoned upload {}", session.getId(), e);
+                }
+            }
+        } while (expired.size() == 100);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
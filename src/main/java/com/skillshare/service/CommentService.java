@@ -0,0 +1,91 @@
+package com.skillshare.service;
+
+import com.skillshare.dto.CommentPage;
+import com.skillshare.dto.CommentResponse;
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
+import com.skillshare.model.Comment;
+import com.skillshare.model.Post;
+import com.skillshare.model.User;
+import com.skillshare.repository.CommentRepository;
+import com.skillshare.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CommentService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final DomainEventPublisher domainEventPublisher;
+
+    /**
+     * Returns a post's comments newest first, starting below {@code cursor}.
+     * Keyset paging keeps deep pages as cheap as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CommentPage getComments(Long postId, Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Comment> comments = commentRepository.findThreadPage(
+                postId, cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> page = hasMore ? comments.subList(0, pageSize) : comments;
+        return CommentPage.builder()
+                .comments(page.stream().map(comment -> toResponse(comment, postId)).toList())
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    @Transactional
+    public CommentResponse addComment(Post post, User author, String content) {
+        Comment comment = new Comment();
+        comment.setPost(post);
+        comment.setUser(author);
+        comment.setContent(content);
+        comment = commentRepository.save(comment);
+        postRepository.adjustCommentCount(post.getId(), 1);
+
+        domainEventPublisher.publish(new DomainEvent.CommentAdded(
+                comment.getId(), post.getId(), post.getUser().getId(), author.getId(), LocalDateTime.now()));
+        return toResponse(comment, post.getId());
+    }
+
+    @Transactional
+    public CommentResponse editComment(Comment comment, String content) {
+        comment.setContent(content);
+        return toResponse(commentRepository.save(comment), comment.getPost().getId());
+    }
+
+    /**
+     * Deletes the comment and decrements the post's comment count, but only
+     * if this call removed the row, so concurrent deletes count once.
+     */
+    @Transactional
+    public void deleteComment(Comment comment) {
+        Long postId = comment.getPost().getId();
+        if (commentRepository.deleteReturningCount(comment.getId()) == 1) {
+            postRepository.adjustCommentCount(postId, -1);
+        }
+    }
+
+    private CommentResponse toResponse(Comment comment, Long postId) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .postId(postId)
+                .content(comment.getContent())
+                .authorId(comment.getUser().getId())
+                .authorName(comment.getUser().getName())
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,290 @@
+package com.skillshare.service;
+
+import com.skillshare.controller.MediaController;
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
+import com.skillshare.model.Post;
+import com.skillshare.model.User;
+import com.skillshare.repository.ActivityRollupRepository;
+import com.skillshare.repository.ArchivedPostRepository;
+import com.skillshare.repository.CommentRepository;
+import com.skillshare.repository.LearningPlanRepository;
+import com.skillshare.repository.NotificationRepository;
+import com.skillshare.repository.PlanTemplateRepository;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.StepProgressRepository;
+import com.skillshare.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes posts and accounts in two phases. A delete request only flips the
+ * soft-delete flag, which hides the content at once. The scheduled reaper then
+ * removes the rows that hang off it in small keyed batches, each in its own
+ * short transaction, and finally the post or user row itself.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentDeletionService {
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final NotificationRepository notificationRepository;
+    private final LearningPlanRepository learningPlanRepository;
+    private final PlanTemplateRepository planTemplateRepository;
+    private final StepProgressRepository stepProgressRepository;
+    private final ActivityRollupRepository activityRollupRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${content.reaper-batch-size:200}")
+    private int batchSize;
+
+    @Transactional
+    public void deletePost(Post post) {
+        long likesReceived = postRepository.countLikesFromOthers(post.getId());
+        postRepository.markDeleted(post.getId(), LocalDateTime.now());
+        domainEventPublisher.publish(new DomainEvent.PostDeleted(post.getId(), post.getUser().getId(),
+                post.getCreatedAt(), likesReceived, LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void deleteUser(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.markDeleted(user.getId(), now);
+        postRepository.markDeletedByUserId(user.getId(), now);
+        learningPlanRepository.markDeletedByUserId(user.getId(), now);
+    }
+
+    @Scheduled(fixedDelayString = "${content.reaper-interval:PT1M}")
+    public void reap() {
+        List<Long> postIds;
+        do {
+            postIds = postRepository.findDeletedIds(batchSize);
+            postIds.forEach(this::reapPost);
+        } while (postIds.size() == batchSize);
+
+        List<Long> userIds;
+        do {
+            userIds = userRepository.findDeletedIds(batchSize);
+            userIds.forEach(this::reapUser);
+        } while (userIds.size() == batchSize);
+    }
+
+    private void reapPost(Long postId) {
+        try {
+            List<String> media = new ArrayList<>();
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> reapPostBatch(postId, media)))) {
+                // Keep going until the post row itself is gone
+            }
+            releaseMedia(media);
+        } catch (RuntimeException e) {
+            log.warn("Could not reap deleted post {}", postId, e);
+        }
+    }
+
+    /**
+     * Removes one batch of rows that belong to a post. Returns false once the
+     * post itself has been deleted.
+     */
+    private boolean reapPostBatch(Long postId, List<String> media) {
+        List<Long> commentIds = commentRepository.findIdsByPostId(postId, batchSize);
+        if (!commentIds.isEmpty()) {
+            commentRepository.deleteAllByIdInBatch(commentIds);
+            return true;
+        }
+
+        List<Long> likerIds = postRepository.findLikerIds(postId, batchSize);
+        if (!likerIds.isEmpty()) {
+            postRepository.deleteLikes(postId, likerIds);
+            return true;
+        }
+
+        List<Long> notificationIds = notificationRepository.findIdsByLink("/posts/" + postId, batchSize);
+        if (!notificationIds.isEmpty()) {
+            notificationRepository.deleteAllByIdInBatch(notificationIds);
+            return true;
+        }
+
+        media.addAll(postRepository.findMediaUrls(postId));
+        postRepository.deleteMedia(postId);
+        postRepository.deleteSoftDeleted(postId);
+        return false;
+    }
+
+    private void reapUser(Long userId) {
+        try {
+            String profilePicture = userRepository.findById(userId)
+                    .map(User::getProfilePicture)
+                    .orElse(null);
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> reapUserBatch(userId)))) {
+                // Keep going until the user row itself is gone
+            }
+            if (profilePicture != null) {
+                releaseMedia(List.of(profilePicture));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reap deleted user {}", userId, e);
+        }
+    }
+
+    private boolean reapUserBatch(Long userId) {
+        // Posts are normally reaped first; this catches any created while the account was being deleted
+        List<Long> postIds = postRepository.findIdsByUserIdIncludingDeleted(userId, 1);
+        if (!postIds.isEmpty()) {
+            postRepository.markDeleted(postIds.get(0), LocalDateTime.now());
+            List<String> media = new ArrayList<>();
+            reapPostBatch(postIds.get(0), media);
+            releaseMediaAfterCommit(media);
+            return true;
+        }
+
+        List<Long> planIds = learningPlanRepository.findIdsByUserIdIncludingDeleted(userId, batchSize);
+        if (!planIds.isEmpty()) {
+            for (Long planId : planIds) {
+                planTemplateRepository.detachSourcePlan(planId);
+                stepProgressRepository.deleteByLearningPlanId(planId);
+                learningPlanRepository.deleteSteps(planId);
+                notificationRepository.deleteAllByIdInBatch(
+                        notificationRepository.findIdsByLink("/learning-plans/" + planId, batchSize));
+                learningPlanRepository.deleteByIdIncludingDeleted(planId);
+            }
+            return true;
+        }
+
+        List<Object[]> comments = commentRepository.findIdsAndPostIdsByUserId(userId, batchSize);
+        if (!comments.isEmpty()) {
+            Map<Long, Long> removedPerPost = comments.stream()
+                    .collect(Collectors.groupingBy(row -> ((Number) row[1]).longValue(), Collectors.counting()));
+            removedPerPost.forEach((postId, count) -> postRepository.adjustCommentCount(postId, -count));
+            commentRepository.deleteAllByIdInBatch(comments.stream()
+                    .map(row -> ((Number) row[0]).longValue())
+                    .toList());
+            return true;
+        }
+
+        List<Long> likedPostIds = postRepository.findLikedPostIds(userId, batchSize);
+        if (!likedPostIds.isEmpty()) {
+            // Deleted posts already took their likes out of the author's rollups
+            publishUnlikes(userId, postRepository.findAuthorsAndCreationTimes(likedPostIds));
+            postRepository.deleteLikesByUser(userId, likedPostIds);
+            return true;
+        }
+
+        List<Long> archivedPostIds = archivedPostRepository.findIdsByUserId(userId, batchSize);
+        if (!archivedPostIds.isEmpty()) {
+            releaseMediaAfterCommit(archivedPostRepository.findMediaUrls(archivedPostIds));
+            archivedPostRepository.purgeComments(archivedPostIds);
+            archivedPostRepository.purgeLikes(archivedPostIds);
+            archivedPostRepository.purgeMedia(archivedPostIds);
+            archivedPostRepository.purgePosts(archivedPostIds);
+            return true;
+        }
+
+        List<Object[]> archivedComments = archivedPostRepository.findCommentIdsAndPostIdsByUserId(userId, batchSize);
+        if (!archivedComments.isEmpty()) {
+            Map<Long, Long> removedPerPost = archivedComments.stream()
+                    .collect(Collectors.groupingBy(row -> ((Number) row[1]).longValue(), Collectors.counting()));
+            removedPerPost.forEach((postId, count) -> archivedPostRepository.adjustCommentCount(postId, -count));
+            archivedPostRepository.purgeCommentsById(archivedComments.stream()
+                    .map(row -> ((Number) row[0]).longValue())
+                    .toList());
+            return true;
+        }
+
+        List<Long> archivedLikedPostIds = archivedPostRepository.findLikedPostIds(userId, batchSize);
+        if (!archivedLikedPostIds.isEmpty()) {
+            publishUnlikes(userId, archivedPostRepository.findAuthorsAndCreationTimes(archivedLikedPostIds));
+            archivedPostRepository.purgeLikesByUser(userId, archivedLikedPostIds);
+            return true;
+        }
+
+        List<Long> followerIds = userRepository.findFollowerIds(userId, batchSize);
+        if (!followerIds.isEmpty()) {
+            userRepository.deleteFollowers(userId, followerIds);
+            return true;
+        }
+
+        List<Long> followingIds = userRepository.findFollowingIds(userId, batchSize);
+        if (!followingIds.isEmpty()) {
+            userRepository.deleteFollowing(userId, followingIds);
+            return true;
+        }
+
+        List<Long> notificationIds = notificationRepository.findIdsByUserId(userId, batchSize);
+        if (notificationIds.isEmpty()) {
+            notificationIds = notificationRepository.findIdsByLink("/users/" + userId, batchSize);
+        }
+        if (!notificationIds.isEmpty()) {
+            notificationRepository.deleteAllByIdInBatch(notificationIds);
+            return true;
+        }
+
+        List<Long> archivedNotificationIds = notificationRepository.findArchivedIdsByUserId(userId, batchSize);
+        if (archivedNotificationIds.isEmpty()) {
+            archivedNotificationIds = notificationRepository.findArchivedIdsByLink("/users/" + userId, batchSize);
+        }
+        if (!archivedNotificationIds.isEmpty()) {
+            notificationRepository.purgeArchived(archivedNotificationIds);
+            return true;
+        }
+
+        activityRollupRepository.deleteByUserId(userId);
+        userRepository.deleteSoftDeleted(userId);
+        return false;
+    }
+
+    /**
+     * Takes the likes of a removed account out of the authors' activity
+     * rollups. Each row is a post id, author id and creation time.
+     */
+    private void publishUnlikes(Long likerId, List<Object[]> posts) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] post : posts) {
+            domainEventPublisher.publish(new DomainEvent.PostUnliked(
+                    (Long) post[0], (Long) post[1], likerId, (LocalDateTime) post[2], now));
+        }
+    }
+
+    private void releaseMediaAfterCommit(List<String> media) {
+        if (!media.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseMedia(media);
+                }
+            });
+        }
+    }
+
+    private void releaseMedia(List<String> media) {
+        for (String url : media) {
+            if (url == null || !url.startsWith(MediaController.MEDIA_PATH)) {
+                continue;
+            }
+            try {
+                imageDerivativeService.release(url.substring(MediaController.MEDIA_PATH.length()));
+            } catch (IOException e) {
+                log.warn("Could not release media {}", url, e);
+            }
+        }
+    }
+}
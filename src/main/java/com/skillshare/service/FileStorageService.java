@@ -1,46 +1,250 @@
 package com.skillshare.service;
 
+import com.skillshare.model.StoredBlob;
+import com.skillshare.repository.StoredBlobRepository;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads content-addressed by their SHA-256 hash. Identical uploads
+ * share one blob on disk under a sharded {@code blobs/ab/cd/<hash>} tree, and
+ * a reference count decides when the blob can be removed.
+ */
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[A-Za-z0-9]{1,10}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final MediaCache mediaCache;
+
+    // Serializes the file move and reference count update for the same hash
+    private final ReentrantLock[] blobLocks = createLocks();
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
     public String storeFile(MultipartFile file) throws IOException {
-        // Create the upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        Files.createDirectories(uploadPath);
+        try (InputStream inputStream = file.getInputStream()) {
+            return storeStream(inputStream, extensionOf(file.getOriginalFilename()));
+        }
+    }
 
-        // Generate a unique file name
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String fileName = UUID.randomUUID().toString() + fileExtension;
+    /**
+     * Streams the content to a temp file while hashing it, then moves it into
+     * place. Returns the stored name, {@code <hash><extension>}.
+     */
+    public String storeStream(InputStream inputStream, String extension) throws IOException {
+        Path tempFile = createTempFile();
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestStream = new DigestInputStream(inputStream, digest)) {
+            Files.copy(digestStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return commitBlob(tempFile, HexFormat.of().formatHex(digest.digest()), extension);
+    }
+
+    /**
+     * Takes ownership of a file that was written inside the upload directory,
+     * hashing it in place and moving it into the blob tree.
+     */
+    public String storeLocalFile(Path file, String extension) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            digestStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return commitBlob(file, HexFormat.of().formatHex(digest.digest()), extension);
+    }
 
-        // Copy the file to the target location
-        Path targetLocation = uploadPath.resolve(fileName);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Releases one reference to a stored file. Returns true if the file itself
+     * was removed from disk.
+     */
+    public boolean deleteFile(String fileName) throws IOException {
+        Matcher matcher = BLOB_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            // Files stored before content addressing live directly in the upload directory
+            Path filePath = resolveStoredFile(fileName);
+            if (filePath == null) {
+                return false;
+            }
+            mediaCache.invalidate(filePath);
+            return Files.deleteIfExists(filePath);
+        }
 
-        return fileName;
+        String hash = matcher.group(1);
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (storedBlobRepository.decrementRefCount(hash) > 0
+                    && storedBlobRepository.deleteIfUnreferenced(hash) > 0) {
+                mediaCache.invalidate(blobPath(hash));
+                return Files.deleteIfExists(blobPath(hash));
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public void deleteFile(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir).resolve(fileName).normalize();
-        Files.deleteIfExists(filePath);
+    /**
+     * Location for a partially received chunked upload. It lives on the upload
+     * volume so {@link #storeLocalFile} can move it into place atomically.
+     */
+    public Path partialUploadPath(String uploadId) throws IOException {
+        Path partialDir = uploadRoot().resolve("tmp").resolve("uploads");
+        Files.createDirectories(partialDir);
+        return partialDir.resolve(uploadId + ".part");
     }
 
     public byte[] getFile(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir).resolve(fileName).normalize();
+        Path filePath = resolveStoredFile(fileName);
+        if (filePath == null) {
+            throw new IOException("Invalid file name: " + fileName);
+        }
         return Files.readAllBytes(filePath);
     }
+
+    /**
+     * Returns the stored file as a streamable resource, or empty if it does not
+     * exist. Small hot files come from the in-memory media cache; everything
+     * else is streamed from disk instead of being buffered on the heap.
+     */
+    public Optional<Resource> loadAsResource(String fileName) {
+        Path filePath = resolveStoredFile(fileName);
+        if (filePath == null) {
+            return Optional.empty();
+        }
+        try {
+            Optional<Resource> cached = mediaCache.get(filePath);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            // Fall back to streaming from disk
+        }
+        if (!Files.isRegularFile(filePath)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(filePath));
+    }
+
+    /**
+     * Returns the content hash encoded in a stored name, if it has one.
+     */
+    public Optional<String> contentHash(String fileName) {
+        Matcher matcher = BLOB_NAME.matcher(fileName);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    public static String extensionOf(String fileName) {
+        if (fileName == null || fileName.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        return EXTENSION.matcher(extension).matches() ? "." + extension.toLowerCase() : "";
+    }
+
+    private String commitBlob(Path tempFile, String hash, String extension) throws IOException {
+        long size = Files.size(tempFile);
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Path blobPath = blobPath(hash);
+            if (Files.exists(blobPath)) {
+                Files.delete(tempFile);
+            } else {
+                Files.createDirectories(blobPath.getParent());
+                Files.move(tempFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            if (storedBlobRepository.incrementRefCount(hash) == 0) {
+                storedBlobRepository.save(StoredBlob.builder()
+                        .hash(hash)
+                        .size(size)
+                        .refCount(1)
+                        .build());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return hash + extension;
+    }
+
+    private Path resolveStoredFile(String fileName) {
+        Matcher matcher = BLOB_NAME.matcher(fileName);
+        if (matcher.matches()) {
+            return blobPath(matcher.group(1));
+        }
+        Path uploadPath = uploadRoot();
+        Path filePath = uploadPath.resolve(fileName).normalize();
+        return filePath.startsWith(uploadPath) ? filePath : null;
+    }
+
+    private Path blobPath(String hash) {
+        return uploadRoot().resolve("blobs")
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    Path createTempFile() throws IOException {
+        // Temp files share the upload volume so the final move is atomic
+        Path tempDir = uploadRoot().resolve("tmp");
+        Files.createDirectories(tempDir);
+        return tempDir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    private Path uploadRoot() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return blobLocks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package com.skillshare.service;
+
+import com.skillshare.model.ImageVariant;
+import com.skillshare.repository.ImageVariantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates downscaled variants of uploaded images on a bounded worker pool,
+ * using only the JDK image APIs. Until a variant is ready, downloads fall
+ * back to the original.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDerivativeService {
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".bmp");
+
+    private final FileStorageService fileStorageService;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ThreadPoolTaskExecutor imageTaskExecutor;
+
+    // Hashes with a pending task, so repeated uploads of one image queue it once
+    private final Set<String> pendingHashes = ConcurrentHashMap.newKeySet();
+
+    @Value("${media.variant-widths:64,256,1024}")
+    private int[] variantWidths;
+
+    @Value("${media.variant-jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${media.variant-max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    public void scheduleVariants(String fileName) {
+        Optional<String> hash = fileStorageService.contentHash(fileName);
+        if (hash.isEmpty() || !IMAGE_EXTENSIONS.contains(FileStorageService.extensionOf(fileName))
+                || !pendingHashes.add(hash.get())) {
+            return;
+        }
+        try {
+            imageTaskExecutor.execute(() -> {
+                try {
+                    generateVariants(fileName, hash.get());
+                } finally {
+                    pendingHashes.remove(hash.get());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pendingHashes.remove(hash.get());
+            log.warn("Image variant queue is full, serving {} at original size", fileName);
+        }
+    }
+
+    /**
+     * Returns the stored name of the smallest variant at least {@code width}
+     * pixels wide, or the original name if no such variant is ready.
+     */
+    public String resolveVariant(String fileName, Integer width) {
+        if (width == null || width <= 0) {
+            return fileName;
+        }
+        return fileStorageService.contentHash(fileName)
+                .flatMap(hash -> imageVariantRepository
+                        .findFirstBySourceHashAndWidthGreaterThanEqualOrderByWidthAsc(hash, width))
+                .map(ImageVariant::getFileName)
+                .orElse(fileName);
+    }
+
+    /**
+     * Releases an uploaded image, removing its variants once the original
+     * blob itself is gone.
+     */
+    public void release(String fileName) throws IOException {
+        if (fileStorageService.deleteFile(fileName)) {
+            Optional<String> hash = fileStorageService.contentHash(fileName);
+            if (hash.isPresent()) {
+                for (ImageVariant variant : imageVariantRepository.findBySourceHash(hash.get())) {
+                    imageVariantRepository.delete(variant);
+                    fileStorageService.deleteFile(variant.getFileName());
+                }
+            }
+        }
+    }
+
+    private void generateVariants(String fileName, String hash) {
+        if (imageVariantRepository.existsBySourceHash(hash)) {
+            return;
+        }
+        try {
+            BufferedImage image = fileStorageService.loadAsResource(fileName)
+                    .map(this::readImage)
+                    .orElse(null);
+            if (image == null) {
+                return;
+            }
+
+            boolean alpha = image.getColorModel().hasAlpha();
+            // Largest first, so each variant is scaled down from the previous one
+            int[] widths = Arrays.stream(variantWidths).sorted().toArray();
+            for (int i = widths.length - 1; i >= 0; i--) {
+                int width = widths[i];
+                if (width >= image.getWidth()) {
+                    continue;
+                }
+                int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+                image = resize(image, width, height, alpha);
+                saveVariant(hash, image, alpha);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate variants for {}", fileName, e);
+        }
+    }
+
+    private void saveVariant(String hash, BufferedImage image, boolean alpha) throws IOException {
+        String variantName = fileStorageService.storeStream(
+                new ByteArrayInputStream(encode(image, alpha)), alpha ? ".png" : ".jpg");
+        try {
+            imageVariantRepository.save(ImageVariant.builder()
+                    .sourceHash(hash)
+                    .width(image.getWidth())
+                    .height(image.getHeight())
+                    .fileName(variantName)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another worker produced the same variant first
+            fileStorageService.deleteFile(variantName);
+        }
+    }
+
+    private BufferedImage readImage(Resource resource) {
+        try (InputStream inputStream = resource.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Check the header before decoding so oversized images are never loaded
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxSourcePixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Could not decode image {}", resource.getFilename(), e);
+            return null;
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        // Halve in steps so bilinear sampling does not skip pixels on large reductions
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
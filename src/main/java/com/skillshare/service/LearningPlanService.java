@@ -0,0 +1,314 @@
+package com.skillshare.service;
+
+import com.skillshare.dto.LearningPlanSummary;
+import com.skillshare.dto.LearningStepView;
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventPublisher;
+import com.skillshare.model.LearningPlan;
+import com.skillshare.model.LearningStep;
+import com.skillshare.model.PlanTemplate;
+import com.skillshare.model.StepProgress;
+import com.skillshare.model.StepStatus;
+import com.skillshare.model.TemplateStep;
+import com.skillshare.model.User;
+import com.skillshare.repository.LearningPlanRepository;
+import com.skillshare.repository.PlanTemplateRepository;
+import com.skillshare.repository.StepProgressRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LearningPlanService {
+
+    private final LearningPlanRepository learningPlanRepository;
+    private final PlanTemplateRepository planTemplateRepository;
+    private final StepProgressRepository stepProgressRepository;
+    private final DomainEventPublisher domainEventPublisher;
+
+    /**
+     * Loads a page of plans and initializes all of their steps with a single
+     * extra query, instead of one lazy load per plan during serialization.
+     */
+    @Transactional(readOnly = true)
+    public Page<LearningPlan> getLearningPlans(Pageable pageable) {
+        Page<LearningPlan> page = learningPlanRepository.findAll(pageable);
+        loadSteps(page.getContent());
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<LearningPlan> getLearningPlansByUser(Long userId, Pageable pageable) {
+        Page<LearningPlan> page = learningPlanRepository.findByUserId(userId, pageable);
+        loadSteps(page.getContent());
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<LearningPlanSummary> getLearningPlanSummaries(Pageable pageable) {
+        return learningPlanRepository.findSummaries(pageable);
+    }
+
+    /**
+     * Clones a plan for a learner by pointing the new plan at a shared template.
+     * The source content is snapshotted once and reused by every later clone
+     * until the source plan is edited. The clone comes back with its template
+     * steps loaded, the same as from a listing.
+     */
+    @Transactional
+    public LearningPlan clonePlan(LearningPlan source, User learner) {
+        PlanTemplate template = source.getTemplate() != null
+                ? source.getTemplate()
+                : publishTemplate(source);
+
+        LearningPlan clone = new LearningPlan();
+        clone.setTitle(source.getTitle());
+        clone.setDescription(source.getDescription());
+        clone.setUser(learner);
+        clone.setTemplate(template);
+        clone = learningPlanRepository.save(clone);
+        loadSteps(List.of(clone));
+        return clone;
+    }
+
+    /**
+     * Turns a cloned plan back into a plan that owns its steps, dropping the
+     * template reference and any per-step progress kept against it.
+     */
+    @Transactional
+    public void detachFromTemplate(LearningPlan plan) {
+        if (plan.getTemplate() != null) {
+            for (StepProgress progress : stepProgressRepository.findByLearningPlanId(plan.getId())) {
+                publishIfReopened(plan, progress.getTemplateStep().getId(), progress.getStatus(),
+                        progress.getCompletedAt());
+            }
+            stepProgressRepository.deleteByLearningPlanId(plan.getId());
+            plan.setTemplate(null);
+        }
+        plan.setPublishedTemplate(null);
+    }
+
+    /**
+     * Removes a plan's own steps before they are replaced. Completed ones are
+     * reported as reopened, so they leave the activity rollups.
+     */
+    @Transactional
+    public void clearSteps(LearningPlan plan) {
+        for (LearningStep step : plan.getSteps()) {
+            publishIfReopened(plan, step.getId(), step.getStatus(), step.getCompletedAt());
+        }
+        plan.getSteps().clear();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LearningStepView> getSteps(LearningPlan plan) {
+        if (plan.getTemplate() == null) {
+            return plan.getSteps().stream()
+                    .map(this::toView)
+                    .toList();
+        }
+
+        Map<Long, StepProgress> progressByStep = stepProgressRepository.findByLearningPlanId(plan.getId()).stream()
+                .collect(Collectors.toMap(progress -> progress.getTemplateStep().getId(), Function.identity()));
+
+        return plan.getTemplate().getSteps().stream()
+                .map(step -> toView(step, progressByStep.get(step.getId())))
+                .toList();
+    }
+
+    /**
+     * Updates a step's status and optional text. For cloned plans only the
+     * learner's progress row is written; the template itself never changes.
+     */
+    @Transactional
+    public LearningStepView updateStep(LearningPlan plan, Long stepId, StepStatus status,
+                                       String title, String description, String resourceUrl) {
+        if (plan.getTemplate() == null) {
+            LearningStep step = plan.getSteps().stream()
+                    .filter(s -> s.getId().equals(stepId))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Step not found"));
+            if (status != null) {
+                step.setCompletedAt(changeStatus(plan, stepId, step.getStatus(), step.getCompletedAt(), status));
+                step.setStatus(status);
+            }
+            if (title != null) step.setTitle(title);
+            if (description != null) step.setDescription(description);
+            if (resourceUrl != null) step.setResourceUrl(resourceUrl);
+            if (title != null || description != null || resourceUrl != null) {
+                // The snapshot no longer matches; the next clone publishes a fresh one
+                plan.setPublishedTemplate(null);
+            }
+            return toView(step);
+        }
+
+        TemplateStep templateStep = plan.getTemplate().getSteps().stream()
+                .filter(s -> s.getId().equals(stepId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Step not found"));
+
+        StepProgress progress = stepProgressRepository.findByLearningPlanIdAndTemplateStepId(plan.getId(), stepId)
+                .orElseGet(() -> {
+                    StepProgress created = new StepProgress();
+                    created.setLearningPlan(plan);
+                    created.setTemplateStep(templateStep);
+                    return created;
+                });
+        if (status != null) {
+            progress.setCompletedAt(changeStatus(plan, stepId, progress.getStatus(), progress.getCompletedAt(), status));
+            progress.setStatus(status);
+        }
+        if (title != null) progress.setTitleOverride(title);
+        if (description != null) progress.setDescriptionOverride(description);
+        if (resourceUrl != null) progress.setResourceUrlOverride(resourceUrl);
+
+        return toView(templateStep, stepProgressRepository.save(progress));
+    }
+
+    @Transactional
+    public void deletePlan(LearningPlan plan) {
+        List<LocalDateTime> stepsCompletedAt = new ArrayList<>();
+        for (LearningStep step : plan.getSteps()) {
+            if (step.getStatus() == StepStatus.COMPLETED && step.getCompletedAt() != null) {
+                stepsCompletedAt.add(step.getCompletedAt());
+            }
+        }
+        if (plan.getTemplate() != null) {
+            for (StepProgress progress : stepProgressRepository.findByLearningPlanId(plan.getId())) {
+                if (progress.getStatus() == StepStatus.COMPLETED && progress.getCompletedAt() != null) {
+                    stepsCompletedAt.add(progress.getCompletedAt());
+                }
+            }
+        }
+        domainEventPublisher.publish(new DomainEvent.LearningPlanDeleted(
+                plan.getId(), plan.getUser().getId(), stepsCompletedAt, LocalDateTime.now()));
+
+        planTemplateRepository.detachSourcePlan(plan.getId());
+        stepProgressRepository.deleteByLearningPlanId(plan.getId());
+        learningPlanRepository.delete(plan);
+    }
+
+    /**
+     * Initializes owned steps and, for cloned plans, the template steps merged
+     * with progress, using one query per kind rather than one per plan.
+     */
+    private void loadSteps(List<LearningPlan> plans) {
+        if (plans.isEmpty()) {
+            return;
+        }
+        learningPlanRepository.fetchSteps(plans);
+
+        List<LearningPlan> cloned = plans.stream()
+                .filter(plan -> plan.getTemplate() != null)
+                .toList();
+        if (cloned.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<TemplateStep>> stepsByTemplate = planTemplateRepository.findStepsByTemplateIdIn(
+                        cloned.stream().map(plan -> plan.getTemplate().getId()).distinct().toList()).stream()
+                .collect(Collectors.groupingBy(step -> step.getTemplate().getId()));
+        Map<Long, Map<Long, StepProgress>> progressByPlan = stepProgressRepository.findByLearningPlanIdIn(
+                        cloned.stream().map(LearningPlan::getId).toList()).stream()
+                .collect(Collectors.groupingBy(progress -> progress.getLearningPlan().getId(),
+                        Collectors.toMap(progress -> progress.getTemplateStep().getId(), Function.identity())));
+
+        for (LearningPlan plan : cloned) {
+            Map<Long, StepProgress> progressByStep = progressByPlan.getOrDefault(plan.getId(), Map.of());
+            List<LearningStepView> views = new ArrayList<>();
+            for (TemplateStep step : stepsByTemplate.getOrDefault(plan.getTemplate().getId(), List.of())) {
+                views.add(toView(step, progressByStep.get(step.getId())));
+            }
+            plan.setTemplateSteps(views);
+        }
+    }
+
+    /**
+     * Publishes a step being completed or reopened and returns the step's
+     * completion time after the change.
+     */
+    private LocalDateTime changeStatus(LearningPlan plan, Long stepId, StepStatus previous,
+                                       LocalDateTime completedAt, StepStatus status) {
+        if (status == StepStatus.COMPLETED && previous != StepStatus.COMPLETED) {
+            LocalDateTime now = LocalDateTime.now();
+            domainEventPublisher.publish(new DomainEvent.StepCompleted(
+                    plan.getId(), stepId, plan.getUser().getId(), now));
+            return now;
+        }
+        if (status != StepStatus.COMPLETED) {
+            publishIfReopened(plan, stepId, previous, completedAt);
+            return null;
+        }
+        return completedAt;
+    }
+
+    private void publishIfReopened(LearningPlan plan, Long stepId, StepStatus previous, LocalDateTime completedAt) {
+        if (previous == StepStatus.COMPLETED) {
+            domainEventPublisher.publish(new DomainEvent.StepUncompleted(
+                    plan.getId(), stepId, plan.getUser().getId(), completedAt, LocalDateTime.now()));
+        }
+    }
+
+    private PlanTemplate publishTemplate(LearningPlan source) {
+        if (source.getPublishedTemplate() != null) {
+            return source.getPublishedTemplate();
+        }
+
+        PlanTemplate template = new PlanTemplate();
+        template.setTitle(source.getTitle());
+        template.setDescription(source.getDescription());
+        template.setSourcePlan(source);
+        for (LearningStep step : source.getSteps()) {
+            TemplateStep templateStep = new TemplateStep();
+            templateStep.setTitle(step.getTitle());
+            templateStep.setDescription(step.getDescription());
+            templateStep.setResourceUrl(step.getResourceUrl());
+            templateStep.setOrderIndex(step.getOrderIndex());
+            templateStep.setTemplate(template);
+            template.getSteps().add(templateStep);
+        }
+
+        template = planTemplateRepository.save(template);
+        source.setPublishedTemplate(template);
+        return template;
+    }
+
+    private LearningStepView toView(LearningStep step) {
+        return LearningStepView.builder()
+                .id(step.getId())
+                .title(step.getTitle())
+                .description(step.getDescription())
+                .resourceUrl(step.getResourceUrl())
+                .orderIndex(step.getOrderIndex())
+                .status(step.getStatus())
+                .build();
+    }
+
+    private LearningStepView toView(TemplateStep step, StepProgress progress) {
+        LearningStepView view = LearningStepView.builder()
+                .id(step.getId())
+                .title(step.getTitle())
+                .description(step.getDescription())
+                .resourceUrl(step.getResourceUrl())
+                .orderIndex(step.getOrderIndex())
+                .status(StepStatus.NOT_STARTED)
+                .build();
+        if (progress != null) {
+            view.setStatus(progress.getStatus());
+            if (progress.getTitleOverride() != null) view.setTitle(progress.getTitleOverride());
+            if (progress.getDescriptionOverride() != null) view.setDescription(progress.getDescriptionOverride());
+            if (progress.getResourceUrlOverride() != null) view.setResourceUrl(progress.getResourceUrlOverride());
+        }
+        return view;
+    }
+}
@@ -0,0 +1,233 @@
+package com.skillshare.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-budgeted LRU cache for small, frequently read media files. Contents are
+ * held in direct buffers so they stay off the Java heap; a buffer's memory is
+ * released when it is evicted and no response is still reading it.
+ */
+@Component
+public class MediaCache implements MeterBinder {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Path, CachedMedia> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong bytesHeld = new AtomicLong();
+
+    public MediaCache(
+            @Value("${media.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${media.cache.max-entry-bytes:1048576}") long maxEntryBytes
+    ) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Returns the cached file, loading it into the cache first if it is small
+     * enough. Returns empty when the file should be streamed from disk instead.
+     */
+    public Optional<Resource> get(Path file) throws IOException {
+        CachedMedia cached = lookup(file);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(new CachedResource(file.getFileName().toString(), cached));
+        }
+        misses.increment();
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile() || attributes.size() > maxEntryBytes) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) attributes.size());
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // keep reading until the buffer is full
+            }
+        }
+        buffer.flip();
+        CachedMedia loaded = new CachedMedia(buffer.asReadOnlyBuffer(), attributes.lastModifiedTime().toMillis());
+        put(file, loaded);
+        return Optional.of(new CachedResource(file.getFileName().toString(), loaded));
+    }
+
+    public void invalidate(Path file) {
+        lock.lock();
+        try {
+            CachedMedia removed = entries.remove(file);
+            if (removed != null) {
+                bytesHeld.addAndGet(-removed.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "media").tag("result", "hit")
+                .description("Media cache lookups served from memory")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "media").tag("result", "miss")
+                .description("Media cache lookups that went to disk")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum)
+                .tag("cache", "media")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "media")
+                .register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.entryCount())
+                .tag("cache", "media")
+                .register(registry);
+        Gauge.builder("cache.bytes.held", bytesHeld, AtomicLong::get)
+                .tag("cache", "media")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private CachedMedia lookup(Path file) {
+        lock.lock();
+        try {
+            return entries.get(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Path file, CachedMedia media) {
+        lock.lock();
+        try {
+            CachedMedia previous = entries.put(file, media);
+            bytesHeld.addAndGet(media.size() - (previous != null ? previous.size() : 0));
+            puts.increment();
+
+            Iterator<Map.Entry<Path, CachedMedia>> eldest = entries.entrySet().iterator();
+            while (bytesHeld.get() > maxBytes && eldest.hasNext()) {
+                CachedMedia evicted = eldest.next().getValue();
+                eldest.remove();
+                bytesHeld.addAndGet(-evicted.size());
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int entryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record CachedMedia(ByteBuffer content, long lastModified) {
+        long size() {
+            return content.capacity();
+        }
+    }
+
+    private static class CachedResource extends AbstractResource {
+        private final String fileName;
+        private final CachedMedia media;
+
+        CachedResource(String fileName, CachedMedia media) {
+            this.fileName = fileName;
+            this.media = media;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(media.content().duplicate());
+        }
+
+        @Override
+        public long contentLength() {
+            return media.size();
+        }
+
+        @Override
+        public long lastModified() {
+            return media.lastModified();
+        }
+
+        @Override
+        public String getFilename() {
+            return fileName;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached media [" + fileName + "]";
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
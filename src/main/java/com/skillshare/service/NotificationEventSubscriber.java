@@ -0,0 +1,88 @@
+package com.skillshare.service;
+
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.DomainEventSubscriber;
+import com.skillshare.model.User;
+import com.skillshare.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns likes, comments and follows into notifications. Each batch loads the
+ * users involved with one query and writes its notifications in one
+ * transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationEventSubscriber implements DomainEventSubscriber {
+
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.PostLiked liked -> {
+                    userIds.add(liked.postAuthorId());
+                    userIds.add(liked.likerId());
+                }
+                case DomainEvent.CommentAdded commented -> {
+                    userIds.add(commented.postAuthorId());
+                    userIds.add(commented.commenterId());
+                }
+                case DomainEvent.UserFollowed followed -> {
+                    userIds.add(followed.followedId());
+                    userIds.add(followed.followerId());
+                }
+                default -> {
+                }
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .filter(user -> !user.isDeleted())
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            for (DomainEvent event : events) {
+                notify(event, users);
+            }
+        });
+    }
+
+    private void notify(DomainEvent event, Map<Long, User> users) {
+        switch (event) {
+            case DomainEvent.PostLiked liked when isOther(users, liked.postAuthorId(), liked.likerId()) ->
+                    notificationService.createLikeNotification(
+                            users.get(liked.postAuthorId()), users.get(liked.likerId()), liked.postId());
+            case DomainEvent.CommentAdded commented when isOther(users, commented.postAuthorId(), commented.commenterId()) ->
+                    notificationService.createCommentNotification(
+                            users.get(commented.postAuthorId()), users.get(commented.commenterId()), commented.postId());
+            case DomainEvent.UserFollowed followed when isOther(users, followed.followedId(), followed.followerId()) ->
+                    notificationService.createFollowNotification(
+                            users.get(followed.followedId()), users.get(followed.followerId()));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Both users still exist and the actor is not notifying themselves.
+     */
+    private static boolean isOther(Map<Long, User> users, Long recipientId, Long actorId) {
+        return !recipientId.equals(actorId) && users.containsKey(recipientId) && users.containsKey(actorId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.skillshare.service;
+
+import com.skillshare.controller.MediaController;
+import com.skillshare.model.PendingUpload;
+import com.skillshare.repository.PendingUploadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks who owns each upload's blob reference until a post takes it over.
+ * Every reference then has exactly one holder (a pending upload, a post's
+ * media row, or a profile picture), so releasing it when that holder goes
+ * away can never drop a reference someone else still relies on.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingUploadService {
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${media.pending-upload-ttl:P1D}")
+    private Duration pendingUploadTtl;
+
+    public void record(Long userId, String fileName) {
+        pendingUploadRepository.save(PendingUpload.builder()
+                .userId(userId)
+                .fileName(fileName)
+                .build());
+    }
+
+    /**
+     * Hands one of the user's pending uploads over for every {@code /media/}
+     * URL, in the caller's transaction. Returns false without claiming
+     * anything if one of them is not an unclaimed upload of this user.
+     */
+    public boolean claim(Long userId, List<String> mediaUrls) {
+        List<String> fileNames = mediaUrls.stream()
+                .filter(url -> url != null && url.startsWith(MediaController.MEDIA_PATH))
+                .map(url -> url.substring(MediaController.MEDIA_PATH.length()))
+                .toList();
+        if (fileNames.isEmpty()) {
+            return true;
+        }
+
+        Map<String, Deque<Long>> available = pendingUploadRepository
+                .findByUserIdAndFileNameIn(userId, new HashSet<>(fileNames)).stream()
+                .collect(Collectors.groupingBy(PendingUpload::getFileName,
+                        Collectors.mapping(PendingUpload::getId, Collectors.toCollection(ArrayDeque::new))));
+        List<Long> claimed = new ArrayList<>();
+        for (String fileName : fileNames) {
+            Deque<Long> ids = available.get(fileName);
+            if (ids == null || ids.isEmpty()) {
+                return false;
+            }
+            claimed.add(ids.poll());
+        }
+
+        if (pendingUploadRepository.deleteByIdIn(claimed) != claimed.size()) {
+            throw new IllegalStateException("Upload was claimed by another request");
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${media.pending-upload-sweep-interval:PT1H}")
+    public void releaseExpired() {
+        List<PendingUpload> expired;
+        do {
+            expired = pendingUploadRepository.findTop100ByCreatedAtBefore(LocalDateTime.now().minus(pendingUploadTtl));
+            for (PendingUpload upload : expired) {
+                // Only whoever removes the row releases its reference, so a concurrent claim wins cleanly
+                Integer removed = transactionTemplate.execute(status ->
+                        pendingUploadRepository.deleteByIdIn(List.of(upload.getId())));
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                try {
+                    imageDerivativeService.release(upload.getFileName());
+                } catch (IOException e) {
+                    log.warn("Could not release expired upload {}", upload.getFileName(), e);
+                }
+            }
+        } while (expired.size() == SWEEP_BATCH_SIZE);
+    }
+}
@@ -0,0 +1,108 @@
+package com.skillshare.service;
+
+import com.skillshare.dto.LearningPlanSummary;
+import com.skillshare.dto.PostSummary;
+import com.skillshare.dto.UserSummary;
+import com.skillshare.repository.LearningPlanRepository;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves user, post and plan summaries for the batch lookup endpoints.
+ * Lives for one request: ids are deduplicated, anything already resolved
+ * earlier in the request (including ids that turned out not to exist) is
+ * served from memory, and the rest is fetched with a single IN query per
+ * type. The authors of a batch of posts and the owners of a batch of plans
+ * are gathered and loaded together in the same way.
+ */
+@Service
+@RequestScope
+@RequiredArgsConstructor
+public class SummaryLoader {
+
+    public static final int MAX_IDS = 100;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final LearningPlanRepository learningPlanRepository;
+
+    private final Map<Long, UserSummary> users = new HashMap<>();
+    private final Map<Long, PostSummary> posts = new HashMap<>();
+    private final Map<Long, LearningPlanSummary> plans = new HashMap<>();
+
+    /**
+     * Returns the summaries that exist, in the order of the first occurrence
+     * of each id.
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> loadUsers(Collection<Long> ids) {
+        return ordered(ids, users(ids));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostSummary> loadPosts(Collection<Long> ids) {
+        Map<Long, PostSummary> found = resolve(ids, posts, postRepository::findSummariesByIdIn, PostSummary::getId);
+        Map<Long, UserSummary> authors = users(found.values().stream().map(PostSummary::getAuthorId).toList());
+        found.values().forEach(post -> post.setAuthor(authors.get(post.getAuthorId())));
+        return ordered(ids, found);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LearningPlanSummary> loadPlans(Collection<Long> ids) {
+        Map<Long, LearningPlanSummary> found = resolve(ids, plans, learningPlanRepository::findSummariesByIdIn,
+                LearningPlanSummary::getId);
+        Map<Long, UserSummary> owners = users(found.values().stream().map(LearningPlanSummary::getOwnerId).toList());
+        found.values().forEach(plan -> plan.setOwner(owners.get(plan.getOwnerId())));
+        return ordered(ids, found);
+    }
+
+    private Map<Long, UserSummary> users(Collection<Long> ids) {
+        return resolve(ids, users, userRepository::findSummariesByIdIn, UserSummary::getId);
+    }
+
+    /**
+     * Looks up every id in the cache, fetching the ones not seen yet in one
+     * query. Ids the query does not return are cached as absent.
+     */
+    private static <T> Map<Long, T> resolve(Collection<Long> ids, Map<Long, T> cache,
+                                            Function<Set<Long>, List<T>> query, Function<T, Long> idOf) {
+        Set<Long> missing = ids.stream()
+                .filter(id -> !cache.containsKey(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!missing.isEmpty()) {
+            missing.forEach(id -> cache.put(id, null));
+            query.apply(missing).forEach(item -> cache.put(idOf.apply(item), item));
+        }
+
+        Map<Long, T> found = new HashMap<>();
+        for (Long id : ids) {
+            T item = cache.get(id);
+            if (item != null) {
+                found.put(id, item);
+            }
+        }
+        return found;
+    }
+
+    private static <T> List<T> ordered(Collection<Long> ids, Map<Long, T> found) {
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
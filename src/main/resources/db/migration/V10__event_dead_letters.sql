@@ -0,0 +1,16 @@
+-- Relay attempts per outbox event, and the events the relay gave up on: ones whose
+-- payload cannot be read and ones that kept failing. They are kept for inspection
+-- instead of holding back every event behind them.
+
+alter table event_outbox add column attempts int default 0 not null;
+
+create table event_dead_letters (
+    id bigint not null,
+    created_at timestamp(6) not null,
+    failed_at timestamp(6) not null,
+    type varchar(100) not null,
+    payload TEXT not null,
+    attempts int not null,
+    reason varchar(500) not null,
+    primary key (id)
+);
@@ -0,0 +1,11 @@
+-- When a step was last completed, cleared when it is reopened. Step rollups are
+-- bucketed on this rather than on updated_at, which later edits move. Steps that
+-- are already completed take their last update as the best known completion time.
+
+alter table learning_steps add column completed_at timestamp(6);
+
+alter table learning_step_progress add column completed_at timestamp(6);
+
+update learning_steps set completed_at = updated_at where status = 'COMPLETED';
+
+update learning_step_progress set completed_at = updated_at where status = 'COMPLETED';
@@ -0,0 +1,177 @@
+-- Schema as generated by Hibernate from the entities before migrations were introduced
+
+create table comments (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    post_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT,
+    primary key (id)
+);
+
+create table image_variants (
+    height integer not null,
+    width integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    source_hash varchar(64) not null,
+    file_name varchar(255) not null,
+    primary key (id),
+    unique (source_hash, width)
+);
+
+create table learning_plans (
+    deleted boolean default false not null,
+    created_at timestamp(6),
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    published_template_id bigint,
+    target_completion_date timestamp(6),
+    template_id bigint,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    description TEXT,
+    status varchar(255) not null check (status in ('NOT_STARTED','IN_PROGRESS','COMPLETED','ON_HOLD')),
+    title varchar(255),
+    primary key (id)
+);
+
+create table learning_step_progress (
+    id bigint generated by default as identity,
+    learning_plan_id bigint not null,
+    template_step_id bigint not null,
+    updated_at timestamp(6),
+    description_override TEXT,
+    resource_url_override varchar(255),
+    status varchar(255) not null check (status in ('NOT_STARTED','IN_PROGRESS','COMPLETED')),
+    title_override varchar(255),
+    primary key (id),
+    unique (learning_plan_id, template_step_id)
+);
+
+create table learning_steps (
+    order_index integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    learning_plan_id bigint not null,
+    updated_at timestamp(6),
+    description TEXT,
+    resource_url varchar(255),
+    status varchar(255) not null check (status in ('NOT_STARTED','IN_PROGRESS','COMPLETED')),
+    title varchar(255),
+    primary key (id)
+);
+
+create table notifications (
+    read boolean not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    link varchar(255),
+    message varchar(255) not null,
+    type varchar(255) check (type in ('LIKE','COMMENT','FOLLOW','LEARNING_PLAN_SHARED')),
+    primary key (id)
+);
+
+create table plan_templates (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    source_plan_id bigint,
+    description TEXT not null,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table post_likes (
+    post_id bigint not null,
+    user_id bigint not null
+);
+
+create table post_media (
+    post_id bigint not null,
+    media_url varchar(255)
+);
+
+create table posts (
+    deleted boolean default false not null,
+    comment_count bigint default 0 not null,
+    created_at timestamp(6),
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT,
+    type varchar(255) not null check (type in ('SKILL_SHARING','PROGRESS_UPDATE')),
+    primary key (id)
+);
+
+create table stored_blobs (
+    created_at timestamp(6),
+    ref_count bigint not null,
+    size bigint not null,
+    hash varchar(64) not null,
+    primary key (hash)
+);
+
+create table template_steps (
+    order_index integer not null,
+    id bigint generated by default as identity,
+    template_id bigint not null,
+    description TEXT not null,
+    resource_url varchar(255),
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table upload_sessions (
+    chunk_count integer not null,
+    chunk_size integer not null,
+    created_at timestamp(6),
+    expires_at timestamp(6) not null,
+    total_size bigint not null,
+    user_id bigint not null,
+    id varchar(36) not null,
+    received_chunks varbinary(8192),
+    original_file_name varchar(255),
+    primary key (id)
+);
+
+create table user_followers (
+    follower_id bigint not null,
+    following_id bigint not null
+);
+
+create table users (
+    deleted boolean default false not null,
+    created_at timestamp(6),
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    bio varchar(1000),
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255),
+    profile_picture varchar(255),
+    provider varchar(255),
+    provider_id varchar(255),
+    primary key (id)
+);
+
+alter table comments add constraint FKh4c7lvsc298whoyd4w9ta25cr foreign key (post_id) references posts;
+alter table comments add constraint FK8omq0tc18jd43bu5tjh6jvraq foreign key (user_id) references users;
+alter table learning_plans add constraint FKcqb2wxt2bf8agq7x25icjccyw foreign key (published_template_id) references plan_templates;
+alter table learning_plans add constraint FKk8jn4kkf7f511pe1kbfb4ga2x foreign key (template_id) references plan_templates;
+alter table learning_plans add constraint FKmqt1xj1chypt3o8wsi2oanf2b foreign key (user_id) references users;
+alter table learning_step_progress add constraint FKh3np6g3csnsw5wbfu1dusrkx6 foreign key (learning_plan_id) references learning_plans;
+alter table learning_step_progress add constraint FKp8nwv1691eofc5ie125p13eaq foreign key (template_step_id) references template_steps;
+alter table learning_steps add constraint FKe1k5lfh16vcoyxxh0d6hpkq96 foreign key (learning_plan_id) references learning_plans;
+alter table notifications add constraint FK9y21adhxn0ayjhfocscqox7bh foreign key (user_id) references users;
+alter table plan_templates add constraint FKi6sw2vk4sbmdaq83xqo3sq4q9 foreign key (source_plan_id) references learning_plans;
+alter table post_likes add constraint FKkgau5n0nlewg6o9lr4yibqgxj foreign key (user_id) references users;
+alter table post_likes add constraint FKa5wxsgl4doibhbed9gm7ikie2 foreign key (post_id) references posts;
+alter table post_media add constraint FK1urcum9dtf0vgul7k405f4r2d foreign key (post_id) references posts;
+alter table posts add constraint FK5lidm6cqbc7u4xhqpxm898qme foreign key (user_id) references users;
+alter table template_steps add constraint FK6f2m1n51ngeq9axw4t6kxt1y2 foreign key (template_id) references plan_templates;
+alter table user_followers add constraint FKsauvjgnbgys3gbeharkga2omh foreign key (follower_id) references users;
+alter table user_followers add constraint FKlia1cf2br4nj6r0uvpunkkkh9 foreign key (following_id) references users;
@@ -0,0 +1,15 @@
+-- Composite indexes for the filters the feed, notification and plan screens hit
+
+create index idx_posts_user_created on posts (user_id, created_at);
+
+create index idx_notifications_user_read_created on notifications (user_id, read, created_at);
+
+-- Reaper cleanup of notifications that point at a deleted post, plan or user
+create index idx_notifications_link on notifications (link);
+
+create index idx_learning_plans_user_status on learning_plans (user_id, status);
+
+create index idx_comments_post_created on comments (post_id, created_at);
+
+-- Who a user follows (feed and following list)
+create index idx_user_followers_follower on user_followers (follower_id);
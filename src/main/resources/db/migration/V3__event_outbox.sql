@@ -0,0 +1,10 @@
+-- Domain events written in the same transaction as the change that raised them.
+-- Rows are deleted once every subscriber has handled the event.
+
+create table event_outbox (
+    id bigint generated by default as identity,
+    created_at timestamp(6) not null,
+    type varchar(100) not null,
+    payload TEXT not null,
+    primary key (id)
+);
@@ -0,0 +1,13 @@
+-- Per-user activity counters in hour, day and week buckets. Granularity is the
+-- ordinal of RollupGranularity; bucket counts units since 1970-01-01 (weeks start
+-- on Monday). Rows are only written for buckets with activity.
+
+create table activity_rollups (
+    user_id bigint not null,
+    granularity smallint not null,
+    bucket integer not null,
+    posts integer default 0 not null,
+    likes_received integer default 0 not null,
+    steps_completed integer default 0 not null,
+    primary key (user_id, granularity, bucket)
+);
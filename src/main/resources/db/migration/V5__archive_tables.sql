@@ -0,0 +1,75 @@
+-- Cold history moved out of the hot tables by ArchiveService. Archived posts
+-- take their comments, likes and media with them. No foreign keys: rows are
+-- written in bulk and only removed by the account reaper.
+
+create table posts_archive (
+    comment_count bigint default 0 not null,
+    created_at timestamp(6),
+    id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    archived_at timestamp(6) not null,
+    content TEXT,
+    type varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_posts_archive_user_created on posts_archive (user_id, created_at);
+
+create table comments_archive (
+    created_at timestamp(6),
+    id bigint not null,
+    post_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT,
+    primary key (id)
+);
+
+create index idx_comments_archive_post on comments_archive (post_id);
+
+create index idx_comments_archive_user on comments_archive (user_id);
+
+create table post_likes_archive (
+    post_id bigint not null,
+    user_id bigint not null
+);
+
+-- Also the lookup that checks which hot likes made it into the archive
+create index idx_post_likes_archive_post_user on post_likes_archive (post_id, user_id);
+
+create index idx_post_likes_archive_user on post_likes_archive (user_id);
+
+create table post_media_archive (
+    post_id bigint not null,
+    media_url varchar(255)
+);
+
+create index idx_post_media_archive_post on post_media_archive (post_id);
+
+create table notifications_archive (
+    read boolean not null,
+    created_at timestamp(6),
+    id bigint not null,
+    user_id bigint not null,
+    link varchar(255),
+    message varchar(255) not null,
+    type varchar(255),
+    primary key (id)
+);
+
+create index idx_notifications_archive_user on notifications_archive (user_id);
+
+create index idx_notifications_archive_link on notifications_archive (link);
+
+-- Progress of the current archive run per table family, so an interrupted
+-- run resumes after the last batch it committed
+create table archive_checkpoints (
+    name varchar(50) not null,
+    cutoff timestamp(6) not null,
+    last_id bigint not null,
+    started_at timestamp(6) not null,
+    completed_at timestamp(6),
+    rows_archived bigint default 0 not null,
+    primary key (name)
+);
@@ -0,0 +1,8 @@
+-- GET /media checks whether a file is shown on a post or as a profile picture
+-- before serving it without authentication
+
+create index idx_post_media_url on post_media (media_url);
+
+create index idx_post_media_archive_url on post_media_archive (media_url);
+
+create index idx_users_profile_picture on users (profile_picture);
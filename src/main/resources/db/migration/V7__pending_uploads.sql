@@ -0,0 +1,14 @@
+-- Uploads not yet attached to a post. Each row holds the upload's blob reference
+-- until a post by the same user claims it or the row expires.
+
+create table pending_uploads (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    file_name varchar(255) not null,
+    created_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_pending_uploads_user_file on pending_uploads (user_id, file_name);
+
+create index idx_pending_uploads_created on pending_uploads (created_at);
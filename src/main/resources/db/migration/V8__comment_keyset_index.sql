@@ -0,0 +1,6 @@
+-- Comment threads are paged by id (WHERE post_id = ? AND id < ? ORDER BY id DESC), so the
+-- index has to lead with post_id and continue with id for the range and the order
+
+drop index idx_comments_post_created;
+
+create index idx_comments_post_id on comments (post_id, id);
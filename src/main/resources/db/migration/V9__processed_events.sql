@@ -0,0 +1,9 @@
+-- Outbox events a subscriber has already applied, written in the same transaction
+-- as the subscriber's own changes so a redelivered event is skipped. Rows are
+-- deleted together with the outbox row once every subscriber has handled it.
+
+create table processed_events (
+    event_id bigint not null,
+    subscriber varchar(100) not null,
+    primary key (event_id, subscriber)
+);
@@ -0,0 +1,99 @@
+package com.skillshare.controller;
+
+import com.skillshare.model.Post;
+import com.skillshare.model.PostType;
+import com.skillshare.model.User;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MediaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void unattachedUploadIsHiddenFromAnonymousCallers() throws Exception {
+        String fileName = storeUniqueFile();
+
+        mockMvc.perform(get(MediaController.MEDIA_PATH + fileName))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void unattachedUploadIsPrivateForSignedInCallers() throws Exception {
+        String fileName = storeUniqueFile();
+
+        mockMvc.perform(get(MediaController.MEDIA_PATH + fileName))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("private")));
+    }
+
+    @Test
+    @WithMockUser
+    void widthFallbackToTheOriginalIsCachedBriefly() throws Exception {
+        String fileName = storeUniqueFile();
+
+        mockMvc.perform(get(MediaController.MEDIA_PATH + fileName).param("w", "320"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, private"));
+        mockMvc.perform(get(MediaController.MEDIA_PATH + fileName))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+    }
+
+    @Test
+    void postMediaIsPublic() throws Exception {
+        String fileName = storeUniqueFile();
+        User author = userRepository.save(User.builder()
+                .name("Media Author")
+                .email(UUID.randomUUID() + "@media.test")
+                .password("secret")
+                .build());
+        Post post = new Post();
+        post.setContent("With a picture");
+        post.setType(PostType.SKILL_SHARING);
+        post.setUser(author);
+        post.setMediaUrls(List.of(MediaController.MEDIA_PATH + fileName));
+        postRepository.save(post);
+
+        mockMvc.perform(get(MediaController.MEDIA_PATH + fileName))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("public")));
+    }
+
+    private String storeUniqueFile() throws IOException {
+        byte[] content = UUID.randomUUID().toString().getBytes();
+        return fileStorageService.storeStream(new ByteArrayInputStream(content), ".txt");
+    }
+}
@@ -0,0 +1,115 @@
+package com.skillshare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.dto.PostRequest;
+import com.skillshare.model.User;
+import com.skillshare.repository.StoredBlobRepository;
+import com.skillshare.repository.UserRepository;
+import com.skillshare.service.ContentDeletionService;
+import com.skillshare.service.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private ContentDeletionService contentDeletionService;
+
+    @Test
+    void postTakesOverTheUploadReferenceOnce() throws Exception {
+        String author = createUser();
+        String other = createUser();
+        String mediaUrl = upload(author);
+
+        createPost(other, mediaUrl).andExpect(status().isBadRequest());
+        createPost(author, mediaUrl).andExpect(status().isOk());
+        // The upload was handed to the first post, so a second post cannot share its reference
+        createPost(author, mediaUrl).andExpect(status().isBadRequest());
+
+        String hash = fileStorageService.contentHash(mediaUrl.substring(MediaController.MEDIA_PATH.length())).orElseThrow();
+        assertThat(storedBlobRepository.findById(hash).orElseThrow().getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reapingAPostReleasesItsMedia() throws Exception {
+        String author = createUser();
+        String mediaUrl = upload(author);
+        String hash = fileStorageService.contentHash(mediaUrl.substring(MediaController.MEDIA_PATH.length())).orElseThrow();
+
+        String body = createPost(author, mediaUrl)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long postId = objectMapper.readTree(body).get("id").asLong();
+        mockMvc.perform(delete("/posts/" + postId).with(user(author)))
+                .andExpect(status().isOk());
+        contentDeletionService.reap();
+
+        assertThat(storedBlobRepository.findById(hash)).isEmpty();
+    }
+
+    private String createUser() {
+        String email = UUID.randomUUID() + "@posts.test";
+        userRepository.save(User.builder()
+                .name("Poster")
+                .email(email)
+                .password("secret")
+                .build());
+        return email;
+    }
+
+    private String upload(String email) throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "picture.txt", MediaType.TEXT_PLAIN_VALUE, UUID.randomUUID().toString().getBytes());
+        String body = mockMvc.perform(multipart("/media").file(file).with(user(email)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("fileUrl").asText();
+    }
+
+    private ResultActions createPost(String email, String mediaUrl) throws Exception {
+        PostRequest request = PostRequest.builder()
+                .content("Look at this")
+                .type("SKILL_SHARING")
+                .mediaUrls(List.of(mediaUrl))
+                .build();
+        return mockMvc.perform(post("/posts")
+                .with(user(email))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+}
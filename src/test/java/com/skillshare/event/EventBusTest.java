@@ -0,0 +1,192 @@
+package com.skillshare.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.model.OutboxEvent;
+import com.skillshare.model.User;
+import com.skillshare.repository.NotificationRepository;
+import com.skillshare.repository.OutboxEventRepository;
+import com.skillshare.repository.ProcessedEventRepository;
+import com.skillshare.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives outbox rows through the bus directly, without the ring, so each
+ * delivery attempt happens exactly when the test asks for it.
+ */
+@SpringBootTest(properties = {
+        "app.events.relay-delay=PT0S", "app.events.relay-interval=PT1H", "app.events.max-attempts=3"})
+@ActiveProfiles("test")
+@Import(EventBusTest.FlakySubscriber.class)
+class EventBusTest {
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private FlakySubscriber flakySubscriber;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        flakySubscriber.failuresLeft.set(0);
+        flakySubscriber.calls.set(0);
+        flakySubscriber.threads.clear();
+        flakySubscriber.poisonPostId = null;
+    }
+
+    @Test
+    void redeliveryAfterAFailureSkipsSubscribersThatAlreadyApplied() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        OutboxEvent outboxEvent = saveToOutbox(
+                new DomainEvent.PostLiked(1L, author.getId(), liker.getId(), null, LocalDateTime.now()));
+
+        flakySubscriber.failuresLeft.set(1);
+        outboxRelay.redeliver();
+        assertThat(outboxEventRepository.findExistingIds(List.of(outboxEvent.getId()))).hasSize(1);
+        assertThat(notificationRepository.countByUserIdAndReadFalse(author.getId())).isEqualTo(1);
+
+        outboxRelay.redeliver();
+        assertThat(flakySubscriber.calls).hasValue(2);
+        assertThat(notificationRepository.countByUserIdAndReadFalse(author.getId())).isEqualTo(1);
+        assertThat(outboxEventRepository.findExistingIds(List.of(outboxEvent.getId()))).isEmpty();
+        assertThat(processedEventRepository.count()).isZero();
+        // Relay batches run on the bus thread like everything else
+        assertThat(flakySubscriber.threads).containsExactly("domain-events");
+    }
+
+    @Test
+    void secondCopyOfADeliveredEventIsDropped() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        DomainEvent event = new DomainEvent.PostLiked(2L, author.getId(), liker.getId(), null, LocalDateTime.now());
+        EventBus.Envelope envelope = new EventBus.Envelope(saveToOutbox(event).getId(), event);
+
+        // As when the relay picks up a row whose copy is still waiting in the ring
+        assertThat(eventBus.redeliver(List.of(envelope)).join()).isTrue();
+        assertThat(eventBus.redeliver(List.of(envelope)).join()).isTrue();
+
+        assertThat(flakySubscriber.calls).hasValue(1);
+        assertThat(notificationRepository.countByUserIdAndReadFalse(author.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void unreadableEventIsDeadLetteredWithoutHoldingBackTheRest() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        OutboxEvent unreadable = outboxEventRepository.save(OutboxEvent.builder()
+                .type("PostLiked")
+                .payload("{\"type\":\"NoSuchEvent\"}")
+                .build());
+        OutboxEvent behind = saveToOutbox(
+                new DomainEvent.PostLiked(3L, author.getId(), liker.getId(), null, LocalDateTime.now()));
+
+        outboxRelay.redeliver();
+
+        assertThat(outboxEventRepository.findExistingIds(List.of(unreadable.getId(), behind.getId()))).isEmpty();
+        assertThat(deadLetterReason(unreadable.getId())).startsWith("Unreadable payload");
+        assertThat(notificationRepository.countByUserIdAndReadFalse(author.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void eventThatKeepsFailingIsDeadLetteredAfterItsAttempts() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        OutboxEvent poison = saveToOutbox(
+                new DomainEvent.PostLiked(4L, author.getId(), liker.getId(), null, LocalDateTime.now()));
+        OutboxEvent healthy = saveToOutbox(
+                new DomainEvent.PostLiked(5L, author.getId(), liker.getId(), null, LocalDateTime.now()));
+        flakySubscriber.poisonPostId = 4L;
+
+        // The shared batch fails; retried one by one, only the poison event is held back
+        outboxRelay.redeliver();
+        assertThat(outboxEventRepository.findExistingIds(List.of(poison.getId(), healthy.getId())))
+                .containsExactly(poison.getId());
+        assertThat(outboxEventRepository.findById(poison.getId())).get()
+                .extracting(OutboxEvent::getAttempts).isEqualTo(1);
+
+        outboxRelay.redeliver();
+        outboxRelay.redeliver();
+        assertThat(outboxEventRepository.findExistingIds(List.of(poison.getId()))).isEmpty();
+        assertThat(deadLetterReason(poison.getId())).isEqualTo("Failed 3 deliveries");
+        // Notifications applied both events once; only the failing subscriber missed one
+        assertThat(notificationRepository.countByUserIdAndReadFalse(author.getId())).isEqualTo(2);
+    }
+
+    private String deadLetterReason(Long id) {
+        return jdbcTemplate.queryForObject("SELECT reason FROM event_dead_letters WHERE id = ?", String.class, id);
+    }
+
+    private OutboxEvent saveToOutbox(DomainEvent event) throws Exception {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(event.getClass().getSimpleName());
+        outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        return outboxEventRepository.save(outboxEvent);
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .name("Event User")
+                .email(UUID.randomUUID() + "@events.test")
+                .password("secret")
+                .build());
+    }
+
+    @TestComponent
+    static class FlakySubscriber implements DomainEventSubscriber {
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        volatile Long poisonPostId;
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            calls.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+            if (events.stream().anyMatch(event ->
+                    event instanceof DomainEvent.PostLiked liked && liked.postId().equals(poisonPostId))) {
+                throw new IllegalStateException("Poison event for testing");
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Subscriber failure for testing");
+            }
+        }
+    }
+}
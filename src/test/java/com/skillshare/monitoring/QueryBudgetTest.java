@@ -0,0 +1,240 @@
+package com.skillshare.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.model.User;
+import com.skillshare.repository.OutboxEventRepository;
+import com.skillshare.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives every endpoint that declares a {@link QueryBudget} in STRICT mode,
+ * over more rows than one page so an N+1 loop trips the repeat check. Each
+ * request starts with empty caches, so the budgets hold for a cache miss.
+ */
+@SpringBootTest(properties = {"app.query-budget.mode=STRICT", "app.events.relay-interval=PT1H"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(QueryBudgetTest.OverBudgetController.class)
+class QueryBudgetTest {
+
+    private static final int ROWS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User author;
+    private User viewer;
+    private final List<Long> postIds = new ArrayList<>();
+    private final List<Long> planIds = new ArrayList<>();
+
+    /**
+     * Seeds through the write endpoints, which are checked against their
+     * own budgets on the way.
+     */
+    @BeforeAll
+    void seed() throws Exception {
+        author = createUser("Author");
+        viewer = createUser("Viewer");
+        User commenter = createUser("Commenter");
+        perform(post("/users/" + author.getId() + "/follow").with(user(viewer.getEmail())));
+
+        for (int i = 0; i < ROWS; i++) {
+            MockMultipartFile file = new MockMultipartFile(
+                    "file", "step.txt", MediaType.TEXT_PLAIN_VALUE, UUID.randomUUID().toString().getBytes());
+            String mediaUrl = json(mockMvc.perform(multipart("/media").file(file).with(user(author.getEmail())))
+                    .andExpect(status().isOk())).get("fileUrl").asText();
+            long postId = json(perform(post("/posts").with(user(author.getEmail())), Map.of(
+                    "content", "Post " + i, "type", "SKILL_SHARING", "mediaUrls", List.of(mediaUrl))))
+                    .get("id").asLong();
+            postIds.add(postId);
+            perform(post("/posts/" + postId + "/like").with(user(viewer.getEmail())));
+            perform(post("/posts/" + postId + "/comments").with(user(commenter.getEmail())),
+                    Map.of("content", "Comment " + i));
+        }
+
+        for (int i = 0; i < ROWS; i++) {
+            long planId = json(perform(post("/learning-plans").with(user(author.getEmail())), Map.of(
+                    "title", "Plan " + i,
+                    "description", "Plan " + i,
+                    "steps", List.of(step("One"), step("Two"), step("Three")))))
+                    .get("id").asLong();
+            planIds.add(planId);
+            // Cloned plans read their steps from a shared template
+            perform(post("/learning-plans/" + planId + "/clone").with(user(viewer.getEmail())));
+        }
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (outboxEventRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        // Notifications and rollups are written by then
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void postEndpointsStayWithinBudget() throws Exception {
+        perform(get("/posts").param("size", "20").with(user(viewer.getEmail())));
+        perform(get("/posts").param("size", "20").param("fields", "id,content,authorId")
+                .with(user(viewer.getEmail())));
+        perform(get("/posts").param("ids", ids(postIds)).with(user(viewer.getEmail())));
+        perform(get("/posts").param("userId", author.getId().toString()).param("size", "20")
+                .with(user(viewer.getEmail())));
+        perform(get("/posts/feed").param("size", "20").with(user(viewer.getEmail())));
+        perform(delete("/posts/" + postIds.get(0) + "/like").with(user(viewer.getEmail())));
+        perform(post("/posts/" + postIds.get(0) + "/like").with(user(viewer.getEmail())));
+    }
+
+    @Test
+    void commentEndpointsStayWithinBudget() throws Exception {
+        perform(get("/posts/" + postIds.get(0) + "/comments").with(user(viewer.getEmail())));
+        perform(post("/posts/" + postIds.get(0) + "/comments").with(user(viewer.getEmail())),
+                Map.of("content", "Nice"));
+    }
+
+    @Test
+    void userEndpointsStayWithinBudget() throws Exception {
+        perform(get("/users").param("ids", author.getId() + "," + viewer.getId()).with(user(viewer.getEmail())));
+        perform(get("/users/me").with(user(viewer.getEmail())));
+        perform(get("/users/" + author.getId()).with(user(viewer.getEmail())));
+        perform(get("/users/search").param("query", "budget").with(user(viewer.getEmail())));
+        JsonNode page = json(perform(get("/users/search").param("query", "budget").param("fields", "id,name")
+                .param("size", "1").with(user(viewer.getEmail()))));
+        assertThat(page.get("content")).hasSize(1);
+        assertThat(page.get("totalElements").asInt()).isGreaterThanOrEqualTo(2);
+
+        mockMvc.perform(get("/users/search").param("query", "budget").param("fields", "id,email")
+                .with(user(viewer.getEmail()))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void learningPlanEndpointsStayWithinBudget() throws Exception {
+        perform(get("/learning-plans").param("size", "20").with(user(viewer.getEmail())));
+        perform(get("/learning-plans").param("size", "20").param("includeSteps", "false")
+                .with(user(viewer.getEmail())));
+        perform(get("/learning-plans").param("ids", ids(planIds)).with(user(viewer.getEmail())));
+        perform(get("/learning-plans/my-plans").param("size", "20").with(user(author.getEmail())));
+        perform(get("/learning-plans/my-plans").param("size", "20").with(user(viewer.getEmail())));
+        perform(get("/learning-plans/" + planIds.get(0) + "/steps").with(user(viewer.getEmail())));
+
+        JsonNode step = json(perform(get("/learning-plans/" + planIds.get(0) + "/steps")
+                .with(user(author.getEmail())))).get(0);
+        perform(put("/learning-plans/" + planIds.get(0) + "/steps/" + step.get("id").asLong())
+                .with(user(author.getEmail())), Map.of("status", "COMPLETED"));
+
+        long clonedPlanId = json(perform(get("/learning-plans/my-plans").param("size", "1")
+                .with(user(viewer.getEmail())))).get("content").get(0).get("id").asLong();
+        JsonNode templateStep = json(perform(get("/learning-plans/" + clonedPlanId + "/steps")
+                .with(user(viewer.getEmail())))).get(0);
+        perform(put("/learning-plans/" + clonedPlanId + "/steps/" + templateStep.get("id").asLong())
+                .with(user(viewer.getEmail())), Map.of("status", "COMPLETED"));
+    }
+
+    @Test
+    void notificationAndAnalyticsEndpointsStayWithinBudget() throws Exception {
+        perform(get("/notifications").param("size", "20").with(user(author.getEmail())));
+        perform(get("/notifications/unread-count").with(user(author.getEmail())));
+        perform(get("/analytics/me").with(user(author.getEmail())));
+    }
+
+    @Test
+    void requestOverBudgetFails() {
+        assertThatThrownBy(() -> perform(get("/test/over-budget").with(user(viewer.getEmail()))))
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        // Budgets have to hold for a cache miss, not only for a warm cache
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return perform(request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body)));
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private static Map<String, String> step(String title) {
+        return Map.of("title", title, "description", title + " of three");
+    }
+
+    private static String ids(List<Long> ids) {
+        return ids.stream().limit(20).map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private User createUser(String name) {
+        return userRepository.save(User.builder()
+                .name(name + " budget")
+                .email(UUID.randomUUID() + "@budget.test")
+                .password("secret")
+                .build());
+    }
+
+    @TestComponent
+    @RestController
+    static class OverBudgetController {
+
+        private final UserRepository userRepository;
+
+        OverBudgetController(UserRepository userRepository) {
+            this.userRepository = userRepository;
+        }
+
+        @GetMapping("/test/over-budget")
+        @QueryBudget(1)
+        public ResponseEntity<Long> overBudget() {
+            return ResponseEntity.ok(userRepository.count() + userRepository.count());
+        }
+    }
+}
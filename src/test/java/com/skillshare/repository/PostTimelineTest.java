@@ -0,0 +1,109 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.Post;
+import com.skillshare.model.User;
+import com.skillshare.monitoring.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PostTimelineTest {
+
+    private static final int HOT = 30;
+    private static final int ARCHIVED = 15;
+    private static final long FIRST_ARCHIVED_ID = 100_000;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        userId = userRepository.findByEmail("timeline@archive.test")
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .name("Timeline").email("timeline@archive.test").password("secret").build()))
+                .getId();
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts_archive", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO posts (user_id, content, type, deleted, comment_count, created_at) " +
+                "SELECT ?, 'Hot ' || X, 'SKILL_SHARING', false, 0, " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2026-01-01 00:00:00') FROM SYSTEM_RANGE(1, ?)", userId, HOT);
+        jdbcTemplate.update("INSERT INTO posts_archive (id, user_id, content, type, comment_count, created_at, " +
+                "archived_at) SELECT ? + X, ?, 'Archived ' || X, 'SKILL_SHARING', 0, " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00'), CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, ?)", FIRST_ARCHIVED_ID, userId, ARCHIVED);
+    }
+
+    @Test
+    void pageWithinTheHotRowsDoesNotReadTheArchive() {
+        Page<Post> first = page(0, 10);
+        assertThat(first.getContent()).extracting(Post::getContent).startsWith("Hot 30", "Hot 29");
+        assertThat(first.getTotalElements()).isEqualTo(HOT + ARCHIVED);
+
+        // Page, hot count and the cached archive count; no archived rows are read
+        entityManagerFactory.getCache().evict(Post.class);
+        statementCounter.begin();
+        Page<Post> second = page(1, 10);
+        assertThat(statementCounter.end()).isEqualTo(2);
+        assertThat(second.getContent()).extracting(Post::getContent).startsWith("Hot 20").endsWith("Hot 11");
+        assertThat(second.getTotalElements()).isEqualTo(HOT + ARCHIVED);
+    }
+
+    @Test
+    void pageAcrossTheBoundaryContinuesIntoTheArchive() {
+        Page<Post> page = page(1, 20);
+
+        assertThat(page.getContent()).hasSize(20).extracting(Post::getContent)
+                .startsWith("Hot 10")
+                .containsSubsequence("Hot 1", "Archived 15")
+                .endsWith("Archived 6");
+        assertThat(page.getTotalElements()).isEqualTo(HOT + ARCHIVED);
+
+        Page<Post> last = page(2, 20);
+        assertThat(last.getContent()).extracting(Post::getContent).containsExactly(
+                "Archived 5", "Archived 4", "Archived 3", "Archived 2", "Archived 1");
+        assertThat(last.getTotalElements()).isEqualTo(HOT + ARCHIVED);
+    }
+
+    @Test
+    void pagePastTheEndIsEmptyWithTheFullTotal() {
+        Page<Post> page = page(5, 10);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(HOT + ARCHIVED);
+    }
+
+    private Page<Post> page(int page, int size) {
+        // In a transaction like the controller, so archived media can be loaded
+        return transactionTemplate.execute(status ->
+                postRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(page, size)));
+    }
+}
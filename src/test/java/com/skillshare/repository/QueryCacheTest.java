@@ -0,0 +1,41 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.User;
+import com.skillshare.monitoring.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void repeatedSearchIsServedFromTheQueryCacheUntilUsersChange() {
+        userRepository.save(User.builder().name("Cache Probe").email("probe@cache.test").password("secret").build());
+
+        assertThat(userRepository.searchUsers("Cache Probe")).hasSize(1);
+
+        statementCounter.begin();
+        List<User> cached = userRepository.searchUsers("Cache Probe");
+        assertThat(statementCounter.end()).isZero();
+        assertThat(cached).extracting(User::getEmail).containsExactly("probe@cache.test");
+
+        userRepository.save(User.builder().name("Cache Probe Two").email("probe2@cache.test").password("secret").build());
+
+        statementCounter.begin();
+        assertThat(userRepository.searchUsers("Cache Probe")).hasSize(2);
+        assertThat(statementCounter.end()).isPositive();
+    }
+}
@@ -0,0 +1,233 @@
+package com.skillshare.repository;
+
+import com.skillshare.model.PlanStatus;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each hot-path repository call against a seeded, analyzed database,
+ * captures the SQL it executes, and fails if H2's plan for any of those
+ * statements scans a whole table instead of using an index.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(QueryPlanTest.CapturingDataSource.class)
+class QueryPlanTest {
+
+    private static final long USER_ID = 7;
+    private static final long POST_ID = 42;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private LearningPlanRepository learningPlanRepository;
+
+    @Autowired
+    private PendingUploadRepository pendingUploadRepository;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.execute("INSERT INTO users (email, name, password, deleted, created_at) " +
+                "SELECT 'user' || X || '@plans.test', 'User ' || X, 'secret', false, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, 500)");
+        jdbcTemplate.execute("INSERT INTO posts (user_id, content, type, deleted, comment_count, created_at) " +
+                "SELECT MOD(X, 500) + 1, 'Post ' || X, 'SKILL_SHARING', false, 0, " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2026-01-01 00:00:00') FROM SYSTEM_RANGE(1, 5000)");
+        jdbcTemplate.execute("INSERT INTO comments (post_id, user_id, content, created_at) " +
+                "SELECT MOD(X, 5000) + 1, MOD(X, 500) + 1, 'Comment ' || X, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.execute("INSERT INTO notifications (user_id, read, message, link, type, created_at) " +
+                "SELECT MOD(X, 500) + 1, MOD(X, 3) = 0, 'Liked', '/posts/' || (MOD(X, 5000) + 1), 'LIKE', " +
+                "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 10000)");
+        jdbcTemplate.execute("INSERT INTO learning_plans (user_id, title, description, status, deleted, created_at) " +
+                "SELECT MOD(X, 500) + 1, 'Plan ' || X, 'Plan', 'NOT_STARTED', false, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, 2000)");
+        jdbcTemplate.execute("INSERT INTO user_followers (follower_id, following_id) " +
+                "SELECT MOD(X, 500) + 1, MOD(X * 7, 500) + 1 FROM SYSTEM_RANGE(1, 5000)");
+        jdbcTemplate.execute("INSERT INTO post_likes (post_id, user_id) " +
+                "SELECT MOD(X, 5000) + 1, MOD(X / 5000, 500) + 1 FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.execute("INSERT INTO post_media (post_id, media_url) " +
+                "SELECT X, '/media/' || X || '.png' FROM SYSTEM_RANGE(1, 2000)");
+        jdbcTemplate.execute("INSERT INTO pending_uploads (user_id, file_name, created_at) " +
+                "SELECT MOD(X, 500) + 1, X || '.png', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 2000)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> hotQueriesUseAnIndex() {
+        Map<String, Runnable> hotQueries = Map.ofEntries(
+                Map.entry("comment thread page", () ->
+                        commentRepository.findThreadPage(POST_ID, Long.MAX_VALUE, PageRequest.of(0, 20))),
+                Map.entry("comment reaper batch", () ->
+                        commentRepository.findIdsByPostId(POST_ID, 200)),
+                Map.entry("profile timeline", () ->
+                        postRepository.findByUserIdOrderByCreatedAtDesc(USER_ID, PageRequest.of(0, 20))),
+                Map.entry("feed", () ->
+                        postRepository.findFollowingUsersPosts(USER_ID,
+                                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")))),
+                Map.entry("like check", () ->
+                        postRepository.isPostLikedByUser(POST_ID, USER_ID)),
+                Map.entry("public media check", () ->
+                        postRepository.isPostMedia("/media/42.png")),
+                Map.entry("notification inbox", () ->
+                        notificationRepository.findByUserIdOrderByCreatedAtDesc(USER_ID, PageRequest.of(0, 20))),
+                Map.entry("unread notification count", () ->
+                        notificationRepository.countByUserIdAndReadFalse(USER_ID)),
+                Map.entry("notification reaper by link", () ->
+                        notificationRepository.findIdsByLink("/posts/" + POST_ID, 200)),
+                Map.entry("plans by user and status", () ->
+                        learningPlanRepository.findByUserIdAndStatus(USER_ID, PlanStatus.NOT_STARTED)),
+                Map.entry("my plans", () ->
+                        learningPlanRepository.findByUserId(USER_ID, PageRequest.of(0, 20))),
+                Map.entry("pending upload claim", () ->
+                        pendingUploadRepository.findByUserIdAndFileNameIn(USER_ID, List.of("7.png")))
+        );
+        return hotQueries.entrySet().stream()
+                .map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> assertNoTableScan(entry.getValue())));
+    }
+
+    private void assertNoTableScan(Runnable query) throws Exception {
+        // Cached results would hide the statements
+        entityManagerFactory.getCache().evictAll();
+        List<CapturedStatement> statements = CapturingDataSource.capture(() ->
+                transactionTemplate.executeWithoutResult(status -> query.run()));
+
+        assertThat(statements).isNotEmpty();
+        for (CapturedStatement statement : statements) {
+            assertThat(explain(statement))
+                    .as("Plan for %s", statement.sql())
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(CapturedStatement statement) throws Exception {
+        try (var connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (ParameterSetOperation parameter : statement.parameters()) {
+                Object[] args = parameter.getArgs();
+                if ("setNull".equals(parameter.getMethod().getName())) {
+                    explain.setNull((Integer) args[0], (Integer) args[1]);
+                } else {
+                    explain.setObject((Integer) args[0], args[1]);
+                }
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        }
+    }
+
+    record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Wraps the application DataSource once more, recording the SELECTs run
+     * while a capture is open on the current thread.
+     */
+    @TestConfiguration
+    static class CapturingDataSource {
+
+        private static final ThreadLocal<List<CapturedStatement>> captured = new ThreadLocal<>();
+
+        static List<CapturedStatement> capture(Runnable work) {
+            List<CapturedStatement> statements = new ArrayList<>();
+            captured.set(statements);
+            try {
+                work.run();
+            } finally {
+                captured.remove();
+            }
+            return statements;
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSourceProxy() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create("capturing", dataSource)
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+                                        List<CapturedStatement> statements = captured.get();
+                                        if (statements == null) {
+                                            return;
+                                        }
+                                        for (QueryInfo query : queries) {
+                                            if (!query.getQuery().trim().toLowerCase().startsWith("select")) {
+                                                continue;
+                                            }
+                                            List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                                                    ? List.of()
+                                                    : query.getParametersList().get(0);
+                                            statements.add(new CapturedStatement(query.getQuery(), parameters));
+                                        }
+                                    }
+
+                                    @Override
+                                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.skillshare.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private static final String USER = "reader@idempotency.test";
+    private static final String BODY = "{\"content\":\"hello\"}";
+
+    private final JwtService jwtService = TestTokens.jwtService();
+    private final IdempotencyFilter filter =
+            new IdempotencyFilter(jwtService, Duration.ofHours(1), 100, Duration.ofSeconds(5));
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bufferedBodyCanBeReadWithAReadListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        filter.doFilter(request("key-1", BODY), new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    byte[] buffer = new byte[4];
+                    int read;
+                    while (input.isReady() && (read = input.read(buffer)) != -1) {
+                        received.write(buffer, 0, read);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void retryIsAnsweredWithTheStoredResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", BODY, controller(201, "{\"id\":7}"));
+        MockHttpServletResponse retry = send("key-1", BODY, controller(201, "{\"id\":8}"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":7}");
+        assertThat(retry.getContentType()).isEqualTo("application/json");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAndReplaysIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> original = sendAsync(
+                blocking(started, release, controller(201, "{\"id\":7}")));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Thread> duplicateThread = new CompletableFuture<>();
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> {
+            duplicateThread.complete(Thread.currentThread());
+            return sendQuietly(controller(201, "{\"id\":8}"));
+        });
+        Thread waiting = duplicateThread.get(5, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiting.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(runs).hasValue(1);
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"id\":7}");
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void differentRequestWithAUsedKeyIsRejected() throws Exception {
+        send("key-1", BODY, controller(201, "{\"id\":7}"));
+        MockHttpServletResponse other = send("key-1", "{\"content\":\"other\"}", controller(201, "{\"id\":8}"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(other.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void duplicateGivesUpWhenTheFirstRequestTakesTooLong() throws Exception {
+        IdempotencyFilter impatient = new IdempotencyFilter(jwtService, Duration.ofHours(1), 100,
+                Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(() ->
+                sendQuietly(impatient, blocking(started, release, controller(201, "{\"id\":7}"))));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse duplicate = send(impatient, "key-1", BODY, controller(201, "{\"id\":8}"));
+        release.countDown();
+
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(original.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void retryRunsAgainAfterAServerError() throws Exception {
+        MockHttpServletResponse failed = send("key-1", BODY, controller(500, "{\"error\":\"boom\"}"));
+        MockHttpServletResponse retry = send("key-1", BODY, controller(201, "{\"id\":7}"));
+        MockHttpServletResponse replayed = send("key-1", BODY, controller(201, "{\"id\":8}"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(failed.getStatus()).isEqualTo(500);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"id\":7}");
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void responseToAnUnauthenticatedRequestIsNotStored() throws Exception {
+        FilterChain rejected = (req, res) -> {
+            runs.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(403);
+        };
+        send("key-1", BODY, rejected);
+        MockHttpServletResponse retry = send("key-1", BODY, controller(201, "{\"id\":7}"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    /**
+     * Stands in for {@link JwtAuthenticationFilter} and the controller behind it.
+     */
+    private FilterChain controller(int status, String body) {
+        return (req, res) -> {
+            runs.incrementAndGet();
+            SecurityContextHolder.getContext().setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(USER, null, List.of()));
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.getWriter().write(body);
+        };
+    }
+
+    private static FilterChain blocking(CountDownLatch started, CountDownLatch release, FilterChain chain) {
+        return (req, res) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chain.doFilter(req, res);
+        };
+    }
+
+    private MockHttpServletRequest request(String idempotencyKey, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/posts");
+        request.setServletPath("/posts");
+        request.addHeader("Authorization", TestTokens.bearer(jwtService, USER));
+        request.addHeader(IdempotencyFilter.HEADER, idempotencyKey);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletResponse send(String idempotencyKey, String body, FilterChain chain) throws Exception {
+        return send(filter, idempotencyKey, body, chain);
+    }
+
+    private MockHttpServletResponse send(IdempotencyFilter target, String idempotencyKey, String body,
+                                         FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            target.doFilter(request(idempotencyKey, body), response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    private CompletableFuture<MockHttpServletResponse> sendAsync(FilterChain chain) {
+        return CompletableFuture.supplyAsync(() -> sendQuietly(chain));
+    }
+
+    private MockHttpServletResponse sendQuietly(FilterChain chain) {
+        return sendQuietly(filter, chain);
+    }
+
+    private MockHttpServletResponse sendQuietly(IdempotencyFilter target, FilterChain chain) {
+        try {
+            return send(target, "key-1", BODY, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.skillshare.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final String ALICE = "alice@ratelimit.test";
+    private static final String BOB = "bob@ratelimit.test";
+    private static final String LIKE = "/posts/1/like";
+    private static final String FOLLOW = "/users/1/follow";
+
+    private final JwtService jwtService = TestTokens.jwtService();
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    // Three likes or follows a minute, so one token comes back every 20 seconds
+    private final RateLimitFilter filter = new RateLimitFilter(jwtService, true,
+            3, Duration.ofMinutes(1), 3, Duration.ofMinutes(1), 3, Duration.ofMinutes(1), now::get);
+
+    @Test
+    void fullBucketAllowsABurstUpToItsCapacity() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(post(LIKE, ALICE).getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = post(LIKE, ALICE);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("21");
+    }
+
+    @Test
+    void tokensComeBackOverTime() throws Exception {
+        exhaust(LIKE, ALICE);
+
+        advance(Duration.ofSeconds(19));
+        assertThat(post(LIKE, ALICE).getStatus()).isEqualTo(429);
+        advance(Duration.ofSeconds(1));
+        assertThat(post(LIKE, ALICE).getStatus()).isEqualTo(200);
+        assertThat(post(LIKE, ALICE).getStatus()).isEqualTo(429);
+
+        advance(Duration.ofMinutes(5));
+        exhaust(LIKE, ALICE);
+    }
+
+    @Test
+    void eachUserAndRuleHasItsOwnBucket() throws Exception {
+        exhaust(LIKE, ALICE);
+
+        assertThat(post(LIKE, BOB).getStatus()).isEqualTo(200);
+        assertThat(post(FOLLOW, ALICE).getStatus()).isEqualTo(200);
+        assertThat(post(LIKE, ALICE).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void requestsWithoutAValidTokenAreLeftToTheSecurityRules() throws Exception {
+        exhaust(LIKE, ALICE);
+
+        MockHttpServletRequest forged = request(LIKE, ALICE);
+        forged.removeHeader("Authorization");
+        forged.addHeader("Authorization", "Bearer not-a-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(forged, response, (req, res) -> { });
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(buckets()).hasSize(1);
+    }
+
+    @Test
+    void onlyBucketsThatHaveRefilledAreEvicted() throws Exception {
+        exhaust(LIKE, ALICE);
+        post(LIKE, BOB);
+
+        advance(Duration.ofSeconds(20));
+        filter.evictIdleBuckets();
+        assertThat(buckets()).containsOnlyKeys("like:" + ALICE);
+
+        advance(Duration.ofSeconds(40));
+        filter.evictIdleBuckets();
+        assertThat(buckets()).isEmpty();
+
+        // A returning user starts again with a full bucket
+        exhaust(LIKE, ALICE);
+    }
+
+    private void exhaust(String path, String user) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(post(path, user).getStatus()).isEqualTo(200);
+        }
+        assertThat(post(path, user).getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse post(String path, String user) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, user), response, (req, res) -> { });
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path, String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", TestTokens.bearer(jwtService, user));
+        return request;
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> buckets() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(filter, "buckets");
+    }
+}
@@ -0,0 +1,28 @@
+package com.skillshare.security;
+
+import com.skillshare.model.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+/**
+ * Signs real tokens for filter tests that run without a Spring context.
+ */
+final class TestTokens {
+
+    private static final String SECRET = "ZmFrZXNlY3JldGZha2VzZWNyZXRmYWtlc2VjcmV0ZmFrZXNlY3JldGZha2VzZWNyZXQ=";
+
+    private TestTokens() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        return jwtService;
+    }
+
+    static String bearer(JwtService jwtService, String email) {
+        return "Bearer " + jwtService.generateToken(Map.of(), User.builder().email(email).build());
+    }
+}
@@ -0,0 +1,233 @@
+package com.skillshare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.dto.PostRequest;
+import com.skillshare.event.DomainEvent;
+import com.skillshare.event.EventBus;
+import com.skillshare.model.ActivityRollup;
+import com.skillshare.model.OutboxEvent;
+import com.skillshare.model.RollupGranularity;
+import com.skillshare.model.User;
+import com.skillshare.repository.ActivityRollupRepository;
+import com.skillshare.repository.OutboxEventRepository;
+import com.skillshare.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.events.relay-interval=PT1H")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActivityRollupServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ActivityRollupRepository activityRollupRepository;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Test
+    void incrementalRollupsMatchARebuild() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        User other = createUser();
+
+        long kept = createPost(author);
+        like(liker, kept);
+        like(other, kept);
+        mockMvc.perform(delete("/posts/" + kept + "/like").with(user(other.getEmail())))
+                .andExpect(status().isOk());
+        like(author, kept);
+
+        long deleted = createPost(author);
+        like(liker, deleted);
+        mockMvc.perform(delete("/posts/" + deleted).with(user(author.getEmail())))
+                .andExpect(status().isOk());
+        awaitDelivery();
+
+        Map<String, String> incremental = rollupsOf(author.getId());
+        String today = RollupGranularity.DAY.name() + "@" + RollupGranularity.DAY.bucketOf(LocalDateTime.now());
+        // One post left with one like from someone else; the deleted post and the taken-back like are gone
+        assertThat(incremental).containsEntry(today, "1/1/0");
+
+        activityRollupService.rebuildAll();
+        assertThat(rollupsOf(author.getId())).isEqualTo(incremental);
+    }
+
+    @Test
+    void stepRollupsFollowReopenedStepsAndDeletedPlans() throws Exception {
+        User learner = createUser();
+        User other = createUser();
+
+        long plan = createPlan(learner, "One", "Two", "Three");
+        List<Long> steps = stepIds(learner, plan);
+        setStatus(learner, plan, steps.get(0), "COMPLETED");
+        setStatus(learner, plan, steps.get(1), "COMPLETED");
+        setStatus(learner, plan, steps.get(1), "IN_PROGRESS");
+        setStatus(learner, plan, steps.get(1), "COMPLETED");
+        setStatus(learner, plan, steps.get(2), "COMPLETED");
+        setStatus(learner, plan, steps.get(2), "NOT_STARTED");
+
+        long deleted = createPlan(learner, "Gone");
+        setStatus(learner, deleted, stepIds(learner, deleted).get(0), "COMPLETED");
+        mockMvc.perform(delete("/learning-plans/" + deleted).with(user(learner.getEmail())))
+                .andExpect(status().isOk());
+
+        // Progress on a cloned plan is dropped when the plan gets steps of its own
+        long source = createPlan(other, "Shared");
+        long clone = objectMapper.readTree(mockMvc.perform(post("/learning-plans/" + source + "/clone")
+                        .with(user(learner.getEmail())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        setStatus(learner, clone, stepIds(learner, clone).get(0), "COMPLETED");
+        mockMvc.perform(put("/learning-plans/" + clone)
+                        .with(user(learner.getEmail()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", "Mine", "description", "Mine",
+                                "steps", List.of(Map.of("title", "New", "description", "New step"))))))
+                .andExpect(status().isOk());
+        awaitDelivery();
+
+        Map<String, String> incremental = rollupsOf(learner.getId());
+        String today = RollupGranularity.DAY.name() + "@" + RollupGranularity.DAY.bucketOf(LocalDateTime.now());
+        assertThat(incremental).containsEntry(today, "0/0/2");
+
+        activityRollupService.rebuildAll();
+        assertThat(rollupsOf(learner.getId())).isEqualTo(incremental);
+    }
+
+    @Test
+    void redeliveredLikeIsCountedOnce() throws Exception {
+        User author = createUser();
+        User liker = createUser();
+        LocalDateTime postCreatedAt = LocalDateTime.of(2026, 3, 2, 10, 15);
+        DomainEvent event = new DomainEvent.PostLiked(1L, author.getId(), liker.getId(), postCreatedAt,
+                LocalDateTime.now());
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(event.getClass().getSimpleName());
+        outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        EventBus.Envelope envelope = new EventBus.Envelope(outboxEventRepository.save(outboxEvent).getId(), event);
+
+        eventBus.redeliver(List.of(envelope)).join();
+        eventBus.redeliver(List.of(envelope)).join();
+
+        // Counted in the post's hour, not the hour of the like
+        String hour = RollupGranularity.HOUR.name() + "@" + RollupGranularity.HOUR.bucketOf(postCreatedAt);
+        assertThat(rollupsOf(author.getId())).containsEntry(hour, "0/1/0");
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .name("Active User")
+                .email(UUID.randomUUID() + "@rollups.test")
+                .password("secret")
+                .build());
+    }
+
+    private long createPost(User author) throws Exception {
+        PostRequest request = PostRequest.builder().content("Progress update").type("SKILL_SHARING").build();
+        String body = mockMvc.perform(post("/posts")
+                        .with(user(author.getEmail()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private long createPlan(User owner, String... stepTitles) throws Exception {
+        List<Map<String, String>> steps = Arrays.stream(stepTitles)
+                .map(title -> Map.of("title", title, "description", title + " step"))
+                .toList();
+        String body = mockMvc.perform(post("/learning-plans")
+                        .with(user(owner.getEmail()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("title", "Plan", "description", "Plan", "steps", steps))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private List<Long> stepIds(User owner, long planId) throws Exception {
+        String body = mockMvc.perform(get("/learning-plans/" + planId + "/steps").with(user(owner.getEmail())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(body).forEach(step -> ids.add(step.get("id").asLong()));
+        return ids;
+    }
+
+    private void setStatus(User owner, long planId, long stepId, String status) throws Exception {
+        mockMvc.perform(put("/learning-plans/" + planId + "/steps/" + stepId)
+                        .with(user(owner.getEmail()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", status))))
+                .andExpect(status().isOk());
+    }
+
+    private void like(User liker, long postId) throws Exception {
+        mockMvc.perform(post("/posts/" + postId + "/like").with(user(liker.getEmail())))
+                .andExpect(status().isOk());
+    }
+
+    private void awaitDelivery() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (outboxEventRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    /**
+     * Non-empty rollups of one user as "posts/likes/steps" by
+     * "granularity@bucket".
+     */
+    private Map<String, String> rollupsOf(Long userId) {
+        return activityRollupRepository.findAll().stream()
+                .filter(rollup -> rollup.getUserId().equals(userId))
+                .filter(rollup -> rollup.getPosts() + rollup.getLikesReceived() + rollup.getStepsCompleted() > 0)
+                .collect(Collectors.toMap(
+                        rollup -> rollup.getGranularity().name() + "@" + rollup.getBucket(),
+                        ActivityRollupServiceTest::counters));
+    }
+
+    private static String counters(ActivityRollup rollup) {
+        return rollup.getPosts() + "/" + rollup.getLikesReceived() + "/" + rollup.getStepsCompleted();
+    }
+}
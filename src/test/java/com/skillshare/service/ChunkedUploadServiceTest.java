@@ -0,0 +1,61 @@
+package com.skillshare.service;
+
+import com.skillshare.model.UploadSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Test
+    void rejectedResendDoesNotOverwriteAReceivedChunk() throws Exception {
+        byte[] content = new byte[CHUNK_SIZE * 2];
+        new Random(42).nextBytes(content);
+        byte[] first = Arrays.copyOfRange(content, 0, CHUNK_SIZE);
+        byte[] second = Arrays.copyOfRange(content, CHUNK_SIZE, content.length);
+
+        UploadSession session = chunkedUploadService.initiate(1L, "video.bin", content.length, CHUNK_SIZE);
+        session = chunkedUploadService.writeChunk(session, 0, new ByteArrayInputStream(first), sha256(first));
+
+        // Same chunk again with corrupted bytes: rejected, and the received bytes stay as they were
+        byte[] corrupted = first.clone();
+        corrupted[0] ^= 1;
+        UploadSession received = session;
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(
+                received, 0, new ByteArrayInputStream(corrupted), sha256(first)))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] truncated = Arrays.copyOf(first, CHUNK_SIZE / 2);
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(
+                received, 0, new ByteArrayInputStream(truncated), sha256(truncated)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        session = chunkedUploadService.writeChunk(session, CHUNK_SIZE, new ByteArrayInputStream(second), sha256(second));
+        String fileName = chunkedUploadService.complete(session);
+
+        assertThat(fileStorageService.contentHash(fileName)).contains(sha256(content));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
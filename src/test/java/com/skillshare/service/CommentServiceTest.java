@@ -0,0 +1,65 @@
+package com.skillshare.service;
+
+import com.skillshare.model.Comment;
+import com.skillshare.model.Post;
+import com.skillshare.model.PostType;
+import com.skillshare.model.User;
+import com.skillshare.repository.CommentRepository;
+import com.skillshare.repository.PostRepository;
+import com.skillshare.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CommentServiceTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void secondDeleteOfTheSameCommentLeavesTheCountAlone() {
+        User author = userRepository.save(User.builder()
+                .name("Commenter")
+                .email(UUID.randomUUID() + "@comments.test")
+                .password("secret")
+                .build());
+        Post post = new Post();
+        post.setContent("Thread");
+        post.setType(PostType.SKILL_SHARING);
+        post.setUser(author);
+        Long postId = postRepository.save(post).getId();
+        Long kept = transactionTemplate.execute(status ->
+                commentService.addComment(postRepository.findById(postId).orElseThrow(), author, "Kept").getId());
+        Long deleted = transactionTemplate.execute(status ->
+                commentService.addComment(postRepository.findById(postId).orElseThrow(), author, "Gone").getId());
+
+        // Both requests loaded the comment before either deleted it
+        Comment first = commentRepository.findById(deleted).orElseThrow();
+        Comment second = commentRepository.findById(deleted).orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> commentService.deleteComment(first));
+        transactionTemplate.executeWithoutResult(status -> commentService.deleteComment(second));
+
+        assertThat(commentRepository.existsById(kept)).isTrue();
+        assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(1);
+    }
+}
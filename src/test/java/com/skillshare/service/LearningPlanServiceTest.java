@@ -0,0 +1,160 @@
+package com.skillshare.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillshare.dto.LearningStepView;
+import com.skillshare.model.LearningPlan;
+import com.skillshare.model.LearningStep;
+import com.skillshare.model.PlanStatus;
+import com.skillshare.model.PlanTemplate;
+import com.skillshare.model.User;
+import com.skillshare.monitoring.StatementCounter;
+import com.skillshare.repository.LearningPlanRepository;
+import com.skillshare.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LearningPlanServiceTest {
+
+    @Autowired
+    private LearningPlanService learningPlanService;
+
+    @Autowired
+    private LearningPlanRepository learningPlanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createPlans() {
+        if (learningPlanRepository.count() > 0) {
+            return;
+        }
+        User owner = createUser("owner@plans.test");
+        for (int i = 0; i < 10; i++) {
+            learningPlanRepository.save(newPlan("Plan " + i, owner));
+        }
+    }
+
+    @Test
+    void listingLoadsStepsForTheWholePageInOneQuery() {
+        // Start cold so the count reflects what a cache miss costs
+        entityManagerFactory.getCache().evictAll();
+
+        statementCounter.begin();
+        Page<LearningPlan> page = learningPlanService.getLearningPlans(PageRequest.of(0, 10));
+        long statements = statementCounter.end();
+
+        assertThat(page.getContent()).hasSize(10);
+        // Steps are initialized before the transaction ends, so reading them afterwards cannot lazy-load
+        assertThat(page.getContent()).allSatisfy(plan -> assertThat(plan.getSteps()).hasSize(4));
+        // Page, count, and one fetch of every plan's steps; an N+1 regression would be 12 or more
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void listingExpandsTemplateStepsForClonedPlans() {
+        User learner = createUser("learner@plans.test");
+        User owner = userRepository.findByEmail("owner@plans.test").orElseThrow();
+        Long sourceId = learningPlanRepository.save(newPlan("Cloned source", owner)).getId();
+        transactionTemplate.executeWithoutResult(status ->
+                learningPlanService.clonePlan(learningPlanRepository.findById(sourceId).orElseThrow(), learner));
+
+        Page<LearningPlan> page = learningPlanService.getLearningPlansByUser(learner.getId(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(1);
+        LearningPlan clone = page.getContent().get(0);
+        assertThat(clone.getSteps()).isEmpty();
+        assertThat(clone.getStepsForResponse())
+                .extracting(step -> ((LearningStepView) step).getTitle())
+                .containsExactly("Step 0", "Step 1", "Step 2", "Step 3");
+
+        JsonNode json = objectMapper.valueToTree(clone);
+        assertThat(json.get("steps")).hasSize(4);
+        assertThat(json.get("steps").get(0).get("status").asText()).isEqualTo("NOT_STARTED");
+    }
+
+    @Test
+    void cloneIsReturnedWithTheTemplateSteps() throws Exception {
+        User owner = userRepository.findByEmail("owner@plans.test").orElseThrow();
+        User learner = createUser("clone-response@plans.test");
+        Long sourceId = learningPlanRepository.save(newPlan("Clone response", owner)).getId();
+
+        LearningPlan clone = transactionTemplate.execute(status ->
+                learningPlanService.clonePlan(learningPlanRepository.findById(sourceId).orElseThrow(), learner));
+
+        // Serialized the way POST /learning-plans/{id}/clone responds
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(clone));
+        assertThat(json.get("steps")).extracting(step -> step.get("title").asText())
+                .containsExactly("Step 0", "Step 1", "Step 2", "Step 3");
+    }
+
+    @Test
+    void editingStepTextRepublishesTheTemplateForLaterClones() {
+        User owner = userRepository.findByEmail("owner@plans.test").orElseThrow();
+        User learner = createUser("second-learner@plans.test");
+        Long sourceId = learningPlanRepository.save(newPlan("Edited source", owner)).getId();
+
+        PlanTemplate first = transactionTemplate.execute(status ->
+                learningPlanService.clonePlan(learningPlanRepository.findById(sourceId).orElseThrow(), learner).getTemplate());
+        PlanTemplate second = transactionTemplate.execute(status -> {
+            LearningPlan source = learningPlanRepository.findById(sourceId).orElseThrow();
+            learningPlanService.updateStep(source, source.getSteps().get(0).getId(), null, "Rewritten", null, null);
+            assertThat(source.getPublishedTemplate()).isNull();
+            PlanTemplate template = learningPlanService.clonePlan(source, learner).getTemplate();
+            assertThat(template.getSteps().get(0).getTitle()).isEqualTo("Rewritten");
+            return template;
+        });
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    private User createUser(String email) {
+        return userRepository.save(User.builder()
+                .name(email)
+                .email(email)
+                .password("secret")
+                .build());
+    }
+
+    private LearningPlan newPlan(String title, User owner) {
+        LearningPlan plan = new LearningPlan();
+        plan.setTitle(title);
+        plan.setDescription(title);
+        plan.setStatus(PlanStatus.NOT_STARTED);
+        plan.setUser(owner);
+        for (int j = 0; j < 4; j++) {
+            LearningStep step = new LearningStep();
+            step.setTitle("Step " + j);
+            step.setDescription("Step description " + j);
+            step.setOrderIndex(j);
+            step.setLearningPlan(plan);
+            plan.getSteps().add(step);
+        }
+        return plan;
+    }
+}